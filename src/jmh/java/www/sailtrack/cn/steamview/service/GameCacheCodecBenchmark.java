@@ -0,0 +1,77 @@
+package www.sailtrack.cn.steamview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存编解码基准：{@code GameCacheService} 保存和加载快照时的分片编码与解码，
+ * 以及更早版本使用的 JSON 格式作为对照
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameCacheCodecBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    int gameCount;
+
+    private ObjectMapper objectMapper;
+    private GameCacheCodec codec;
+    private List<Game> games;
+    private List<GameCacheCodec.Shard> shards;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        codec = new GameCacheCodec(objectMapper);
+        games = SyntheticLibrary.games(gameCount);
+        shards = codec.encodeShards(games);
+        json = objectMapper.writeValueAsString(GameLibrary.of(games, Instant.now()));
+    }
+
+    @Benchmark
+    public List<GameCacheCodec.Shard> encodeShards() {
+        return codec.encodeShards(games);
+    }
+
+    @Benchmark
+    public List<Game> decodeShards() {
+        List<Game> decoded = new ArrayList<>(gameCount);
+        for (GameCacheCodec.Shard shard : shards) {
+            decoded.addAll(codec.decodeShard(shard.name(), shard.data()));
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        return objectMapper.writeValueAsString(GameLibrary.of(games, Instant.now()));
+    }
+
+    @Benchmark
+    public GameLibrary decodeJson() throws Exception {
+        return objectMapper.readValue(json, GameLibrary.class);
+    }
+}
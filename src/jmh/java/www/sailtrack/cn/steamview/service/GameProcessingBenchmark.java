@@ -0,0 +1,88 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.GameSearchIndex;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.SteamViewConfig;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 游戏数据处理基准：合并拥有和最近游玩的游戏、过滤隐藏游戏、计算统计数据、构建排序和搜索索引以及搜索
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameProcessingBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    int gameCount;
+
+    private List<Game> ownedGames;
+    private List<Game> recentGames;
+    private SteamViewConfig config;
+    private GameLibrary library;
+    private GameSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        ownedGames = SyntheticLibrary.games(gameCount);
+        recentGames = SyntheticLibrary.recentGames(ownedGames);
+        // 隐藏约 1% 的游戏
+        Set<String> hiddenGames = new HashSet<>();
+        for (int i = 0; i < ownedGames.size(); i += 100) {
+            hiddenGames.add(ownedGames.get(i).appId());
+        }
+        config = new SteamViewConfig("key", "76561197960287930", 6, hiddenGames);
+        library = GameLibrary.of(ownedGames, Instant.now());
+        snapshot = GameSnapshot.of(library, 1L);
+    }
+
+    @Benchmark
+    public List<Game> mergeAndFilter() {
+        return GameRefreshService.visibleGames(GameRefreshService.mergeGames(ownedGames, recentGames), config);
+    }
+
+    @Benchmark
+    public GameLibrary computeStats() {
+        return GameLibrary.of(ownedGames, Instant.now());
+    }
+
+    @Benchmark
+    public GameSnapshot buildIndex() {
+        return GameSnapshot.of(library, 1L);
+    }
+
+    @Benchmark
+    public GameSearchIndex.Result searchPrefix() {
+        return snapshot.index().search().search("dark so", GameSearchIndex.DEFAULT_LIMIT);
+    }
+
+    @Benchmark
+    public GameSearchIndex.Result searchPinyin() {
+        return snapshot.index().search().search("wushi", GameSearchIndex.DEFAULT_LIMIT);
+    }
+
+    @Benchmark
+    public GameSnapshot processRefresh() {
+        List<Game> games = GameRefreshService.visibleGames(
+            GameRefreshService.mergeGames(ownedGames, recentGames), config);
+        return GameSnapshot.of(GameLibrary.of(games, Instant.now()), 1L);
+    }
+}
@@ -0,0 +1,59 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import www.sailtrack.cn.steamview.model.Game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steam 游戏列表响应解析基准
+ * <p>按网络读取的块大小分块输入 {@link SteamGameStreamParser}，与 {@code SteamApiService} 的流式解析路径一致。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SteamResponseParseBenchmark {
+
+    /**
+     * Reactor Netty 默认的读取块大小
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"100", "1000", "10000", "50000"})
+    int gameCount;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = SyntheticLibrary.ownedGamesResponse(SyntheticLibrary.games(gameCount));
+    }
+
+    @Benchmark
+    public List<Game> parseOwnedGames() throws IOException {
+        SteamGameStreamParser parser = new SteamGameStreamParser();
+        try {
+            List<Game> games = new ArrayList<>(gameCount);
+            for (int offset = 0; offset < response.length; offset += CHUNK_SIZE) {
+                games.addAll(parser.feed(response, offset, Math.min(CHUNK_SIZE, response.length - offset)));
+            }
+            games.addAll(parser.endOfInput());
+            return games;
+        } finally {
+            parser.close();
+        }
+    }
+}
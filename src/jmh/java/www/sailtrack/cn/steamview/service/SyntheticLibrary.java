@@ -0,0 +1,110 @@
+package www.sailtrack.cn.steamview.service;
+
+import www.sailtrack.cn.steamview.model.Game;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试使用的合成游戏库
+ * <p>使用固定种子生成，同样的游戏数量每次得到相同的数据；时长分布偏斜，
+ * 约三成游戏从未游玩，约一成游戏有两周时长，名称混合英文和中文。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class SyntheticLibrary {
+
+    private static final long SEED = 20240410L;
+    private static final long NOW = 1_700_000_000L;
+
+    private static final String[] WORDS = {
+        "Dark", "Souls", "Hollow", "Knight", "Stardew", "Valley", "Portal", "Half-Life", "Counter", "Strike",
+        "Civilization", "Factorio", "Terraria", "Celeste", "Hades", "Witcher", "Elden", "Ring", "Sekiro", "Dota"
+    };
+
+    private static final String[] CJK_WORDS = {
+        "黑暗", "之魂", "空洞", "骑士", "星露谷", "物语", "传送门", "半条命", "反恐", "精英",
+        "文明", "异星", "工厂", "泰拉", "瑞亚", "蔚蓝", "哈迪斯", "巫师", "艾尔登", "法环"
+    };
+
+    private SyntheticLibrary() {
+    }
+
+    /**
+     * 生成游戏列表
+     *
+     * @param count 游戏数量
+     * @return 游戏列表
+     */
+    static List<Game> games(int count) {
+        Random random = new Random(SEED + count);
+        List<Game> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            games.add(game(random, String.valueOf(10 + i * 10)));
+        }
+        return games;
+    }
+
+    /**
+     * 生成最近游玩列表：一部分来自游戏库，另有少量家庭共享游戏
+     *
+     * @param owned 游戏库
+     * @return 最近游玩的游戏
+     */
+    static List<Game> recentGames(List<Game> owned) {
+        Random random = new Random(SEED - owned.size());
+        List<Game> recent = new ArrayList<>();
+        for (Game game : owned) {
+            if (game.twoWeekTime() > 0) {
+                recent.add(game);
+            }
+        }
+        int shared = Math.max(1, owned.size() / 200);
+        for (int i = 0; i < shared; i++) {
+            recent.add(game(random, String.valueOf(5 + i * 10)));
+        }
+        return recent;
+    }
+
+    /**
+     * 生成 {@code GetOwnedGames} 格式的响应
+     *
+     * @param games 游戏列表
+     * @return UTF-8 编码的响应体
+     */
+    static byte[] ownedGamesResponse(List<Game> games) {
+        StringBuilder json = new StringBuilder(games.size() * 160 + 64);
+        json.append("{\"response\":{\"game_count\":").append(games.size()).append(",\"games\":[");
+        for (int i = 0; i < games.size(); i++) {
+            Game game = games.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"appid\":").append(game.appId())
+                .append(",\"name\":\"").append(game.name()).append('"')
+                .append(",\"playtime_forever\":").append(game.totalTime())
+                .append(",\"playtime_2weeks\":").append(game.twoWeekTime())
+                .append(",\"img_icon_url\":\"0123456789abcdef0123456789abcdef01234567\"")
+                .append(",\"has_community_visible_stats\":true")
+                .append(",\"playtime_windows_forever\":").append(game.totalTime())
+                .append(",\"rtime_last_played\":").append(game.rtimeLastPlayed())
+                .append('}');
+        }
+        json.append("]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Game game(Random random, String appId) {
+        String name = random.nextInt(4) == 0
+            ? CJK_WORDS[random.nextInt(CJK_WORDS.length)] + CJK_WORDS[random.nextInt(CJK_WORDS.length)]
+            : WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + appId;
+        boolean played = random.nextInt(10) >= 3;
+        long totalTime = played ? (long) Math.exp(random.nextDouble() * 10) : 0;
+        long twoWeekTime = played && random.nextInt(10) == 0 ? Math.min(totalTime, random.nextInt(1200) + 1) : 0;
+        long rtimeLastPlayed = played ? NOW - random.nextInt(5 * 365 * 24 * 3600) : 0;
+        return Game.of(appId, name, totalTime, twoWeekTime, rtimeLastPlayed);
+    }
+}
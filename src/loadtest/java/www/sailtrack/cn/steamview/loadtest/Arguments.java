@@ -0,0 +1,44 @@
+package www.sailtrack.cn.steamview.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 命令行参数，格式为 {@code --name=value}，未指定时读取同名的 {@code steamview.loadtest.name} 系统属性
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class Arguments {
+
+    private static final String PROPERTY_PREFIX = "steamview.loadtest.";
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Arguments(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+    }
+
+    String string(String name, String defaultValue) {
+        String value = values.get(name);
+        return value != null ? value : System.getProperty(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        return Integer.parseInt(string(name, String.valueOf(defaultValue)));
+    }
+
+    double decimal(String name, double defaultValue) {
+        return Double.parseDouble(string(name, String.valueOf(defaultValue)));
+    }
+}
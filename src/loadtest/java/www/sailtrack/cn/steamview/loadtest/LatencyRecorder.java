@@ -0,0 +1,51 @@
+package www.sailtrack.cn.steamview.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 延迟记录，保存每次请求的耗时用于计算分位数
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[4096];
+    private int count;
+    private int failures;
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized void failure() {
+        failures++;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized int failures() {
+        return failures;
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param percentile 分位（0-100）
+     * @return 耗时（毫秒），没有样本时为 0
+     */
+    synchronized double percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+    }
+}
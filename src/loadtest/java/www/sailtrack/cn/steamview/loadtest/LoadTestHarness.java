@@ -0,0 +1,172 @@
+package www.sailtrack.cn.steamview.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 端到端压测
+ * <p>并发请求 {@code GET /steamview/games}，同时周期性调用 {@code POST /steamview/refresh}，
+ * 结束后输出吞吐量、p50/p99 延迟以及模拟服务统计的每次刷新的上游请求数。</p>
+ * <p>Halo 需以指向 {@link SteamStubServer} 的 Steam 接口地址启动，插件中配置任意 API Key 和 Steam ID。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public final class LoadTestHarness {
+
+    private static final Pattern REQUEST_COUNT = Pattern.compile("\"([A-Za-z]+)\":(\\d+)");
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final String target;
+    private final String stub;
+    private final Duration duration;
+    private final int readers;
+    private final int refreshers;
+    private final Duration refreshInterval;
+
+    private final LatencyRecorder games = new LatencyRecorder();
+    private final LatencyRecorder refreshes = new LatencyRecorder();
+    private final AtomicInteger successfulRefreshes = new AtomicInteger();
+
+    LoadTestHarness(Arguments arguments) {
+        this.target = trimSlash(arguments.string("target", "http://localhost:8090"));
+        this.stub = trimSlash(arguments.string("stub", "http://localhost:8765"));
+        this.duration = Duration.ofSeconds(arguments.integer("duration", 60));
+        this.readers = arguments.integer("readers", 32);
+        this.refreshers = arguments.integer("refreshers", 2);
+        this.refreshInterval = Duration.ofMillis(arguments.integer("refresh-interval", 5000));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestHarness(new Arguments(args)).run();
+    }
+
+    void run() throws Exception {
+        send(HttpRequest.newBuilder(URI.create(stub + "/stub/reset"))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build());
+        System.out.printf("压测 %s：%d 个读取线程，%d 个刷新线程（间隔 %d ms），持续 %d 秒%n",
+            target, readers, refreshers, refreshInterval.toMillis(), duration.toSeconds());
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long startedAt = System.nanoTime();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < readers; i++) {
+            executor.submit(() -> readLoop(deadline));
+        }
+        for (int i = 0; i < refreshers; i++) {
+            executor.submit(() -> refreshLoop(deadline));
+        }
+        executor.shutdown();
+        executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+        report("GET /steamview/games", games, elapsedSeconds);
+        report("POST /steamview/refresh", refreshes, elapsedSeconds);
+        reportUpstream();
+    }
+
+    private void readLoop(long deadline) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target + "/steamview/games"))
+            .header("Accept-Encoding", "gzip")
+            .timeout(Duration.ofSeconds(60))
+            .GET()
+            .build();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 200 || response.statusCode() == 304) {
+                    games.record(System.nanoTime() - start);
+                } else {
+                    games.failure();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                games.failure();
+            }
+        }
+    }
+
+    private void refreshLoop(long deadline) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target + "/steamview/refresh"))
+            .timeout(Duration.ofMinutes(5))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    refreshes.record(System.nanoTime() - start);
+                    // 手动刷新有最小间隔，被拒绝的刷新返回 success:false
+                    if (response.body().contains("\"success\":true")) {
+                        successfulRefreshes.incrementAndGet();
+                    }
+                } else {
+                    refreshes.failure();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                refreshes.failure();
+            }
+            try {
+                Thread.sleep(refreshInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void report(String name, LatencyRecorder recorder, double elapsedSeconds) {
+        System.out.printf("%-26s 请求 %7d，失败 %5d，吞吐 %9.1f req/s，p50 %8.2f ms，p99 %8.2f ms，最大 %8.2f ms%n",
+            name, recorder.count(), recorder.failures(), recorder.count() / elapsedSeconds,
+            recorder.percentile(50), recorder.percentile(99), recorder.percentile(100));
+    }
+
+    private void reportUpstream() throws Exception {
+        String stats = send(HttpRequest.newBuilder(URI.create(stub + "/stub/stats")).GET().build());
+        int requestsEnd = stats.indexOf('}');
+        Matcher matcher = REQUEST_COUNT.matcher(requestsEnd < 0 ? stats : stats.substring(0, requestsEnd));
+        List<String> lines = new ArrayList<>();
+        long upstream = 0;
+        while (matcher.find()) {
+            long count = Long.parseLong(matcher.group(2));
+            upstream += count;
+            lines.add(String.format("  %-24s %d", matcher.group(1), count));
+        }
+        System.out.println("上游请求（模拟服务统计）：" + stats);
+        lines.forEach(System.out::println);
+        int refreshed = successfulRefreshes.get();
+        System.out.printf("成功刷新 %d 次，上游请求共 %d 次，每次刷新 %.1f 次%n",
+            refreshed, upstream, refreshed == 0 ? 0.0 : (double) upstream / refreshed);
+        System.out.println("注：上游请求还包括过期数据触发的后台刷新和封面下载");
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,263 @@
+package www.sailtrack.cn.steamview.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地 Steam 接口模拟服务
+ * <p>提供 {@code ResolveVanityURL}、{@code GetOwnedGames}、{@code GetRecentlyPlayedGames}、
+ * {@code appdetails} 和封面图片，游戏库大小、响应延迟、错误率和 429 限流比例均可配置，
+ * 用于在不访问 Steam 的情况下测试刷新行为。</p>
+ * <p>插件通过以下系统属性连接到模拟服务：</p>
+ * <pre>
+ * -Dsteamview.steam.api-base-url=http://localhost:8765
+ * -Dsteamview.steam.store-base-url=http://localhost:8765
+ * -Dsteamview.steam.cdn-base-url=http://localhost:8765
+ * </pre>
+ * <p>{@code GET /stub/stats} 返回各接口的请求次数，{@code POST /stub/reset} 清零。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public final class SteamStubServer {
+
+    private static final String STEAM_ID = "76561197960287930";
+
+    private final HttpServer server;
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final double errorRate;
+    private final double throttleRate;
+    private final int retryAfterSeconds;
+    private final double missingNameRate;
+
+    private final byte[] ownedGames;
+    private final byte[] recentGames;
+    private final byte[] cover;
+
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public SteamStubServer(Arguments arguments) throws IOException {
+        this.latencyMillis = arguments.integer("latency", 50);
+        this.jitterMillis = arguments.integer("jitter", 20);
+        this.errorRate = arguments.decimal("error-rate", 0);
+        this.throttleRate = arguments.decimal("throttle-rate", 0);
+        this.retryAfterSeconds = arguments.integer("retry-after", 5);
+        this.missingNameRate = arguments.decimal("missing-name-rate", 0.1);
+
+        int gameCount = arguments.integer("games", 1000);
+        int recentCount = arguments.integer("recent", Math.min(gameCount, 20));
+        this.ownedGames = gamesResponse(gameCount, 0, gameCount);
+        // 最近游玩列表包含少量不在游戏库中的家庭共享游戏
+        this.recentGames = gamesResponse(recentCount, gameCount - recentCount + recentCount / 5, gameCount + recentCount);
+        this.cover = cover();
+
+        this.server = HttpServer.create(new InetSocketAddress(arguments.integer("port", 8765)), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/ISteamUser/ResolveVanityURL/v0001/", steam("ResolveVanityURL",
+            exchange -> json(exchange, "{\"response\":{\"steamid\":\"" + STEAM_ID + "\",\"success\":1}}")));
+        server.createContext("/IPlayerService/GetOwnedGames/v0001/", steam("GetOwnedGames",
+            exchange -> send(exchange, 200, "application/json", ownedGames)));
+        server.createContext("/IPlayerService/GetRecentlyPlayedGames/v0001/", steam("GetRecentlyPlayedGames",
+            exchange -> send(exchange, 200, "application/json", recentGames)));
+        server.createContext("/api/appdetails", steam("appdetails", this::appDetails));
+        server.createContext("/steam/apps/", steam("cover",
+            exchange -> send(exchange, 200, "image/png", cover)));
+        server.createContext("/stub/stats", this::stats);
+        server.createContext("/stub/reset", exchange -> {
+            requests.clear();
+            errors.reset();
+            throttled.reset();
+            send(exchange, 204, null, new byte[0]);
+            exchange.close();
+        });
+        System.out.printf("模拟服务：%d 个游戏，%d 个最近游玩，延迟 %d±%d ms，错误率 %.2f，限流比例 %.2f%n",
+            gameCount, recentCount, latencyMillis, jitterMillis, errorRate, throttleRate);
+    }
+
+    public static void main(String[] args) throws IOException {
+        SteamStubServer stub = new SteamStubServer(new Arguments(args));
+        stub.start();
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("模拟服务已启动: http://localhost:" + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * 包装模拟接口：计数、注入延迟、429 和 5xx
+     */
+    private HttpHandler steam(String endpoint, HttpHandler handler) {
+        return exchange -> {
+            requests.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+            try {
+                sleep();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (random.nextDouble() < throttleRate) {
+                    throttled.increment();
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                    send(exchange, 429, "text/plain", "Too Many Requests".getBytes(StandardCharsets.UTF_8));
+                } else if (random.nextDouble() < errorRate) {
+                    errors.increment();
+                    send(exchange, 500, "text/plain", "Internal Server Error".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    handler.handle(exchange);
+                }
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void appDetails(HttpExchange exchange) throws IOException {
+        String appId = query(exchange.getRequestURI(), "appids");
+        if (appId == null) {
+            send(exchange, 400, "text/plain", "missing appids".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        boolean missing = Math.floorMod(appId.hashCode(), 1000) < missingNameRate * 1000;
+        String body = missing
+            ? "{\"" + appId + "\":{\"success\":false}}"
+            : "{\"" + appId + "\":{\"success\":true,\"data\":{\"type\":\"game\",\"name\":\"模拟游戏 " + appId
+                + "\",\"steam_appid\":" + appId + "}}}";
+        json(exchange, body);
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        StringBuilder body = new StringBuilder("{\"requests\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (!first) {
+                body.append(',');
+            }
+            body.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            first = false;
+        }
+        body.append("},\"errors\":").append(errors.sum())
+            .append(",\"throttled\":").append(throttled.sum()).append('}');
+        json(exchange, body.toString());
+        exchange.close();
+    }
+
+    private void sleep() {
+        int delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextInt(-jitterMillis, jitterMillis + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String query(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                return pair.substring(separator + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void json(HttpExchange exchange, String body) throws IOException {
+        send(exchange, 200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    /**
+     * 生成游戏列表响应，App ID 为 10 的倍数，与 Steam 的编号方式一致
+     *
+     * @param count 游戏数量
+     * @param from  起始序号
+     * @param seed  随机种子
+     * @return 响应体
+     */
+    private static byte[] gamesResponse(int count, int from, long seed) {
+        Random random = new Random(seed);
+        long now = System.currentTimeMillis() / 1000;
+        StringBuilder json = new StringBuilder(count * 160 + 64);
+        json.append("{\"response\":{\"total_count\":").append(count).append(",\"games\":[");
+        for (int i = 0; i < count; i++) {
+            int appId = (from + i + 1) * 10;
+            boolean played = random.nextInt(10) >= 3;
+            long totalTime = played ? (long) Math.exp(random.nextDouble() * 10) : 0;
+            long twoWeekTime = played && random.nextInt(10) == 0 ? Math.min(totalTime, random.nextInt(1200) + 1) : 0;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"appid\":").append(appId)
+                .append(",\"name\":\"Stub Game ").append(appId).append('"')
+                .append(",\"playtime_forever\":").append(totalTime)
+                .append(",\"playtime_2weeks\":").append(twoWeekTime)
+                .append(",\"img_icon_url\":\"0123456789abcdef0123456789abcdef01234567\"")
+                .append(",\"rtime_last_played\":").append(played ? now - random.nextInt(365 * 24 * 3600) : 0)
+                .append('}');
+        }
+        json.append("]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成与 Steam 封面尺寸相同的纯色图片
+     */
+    private static byte[] cover() {
+        BufferedImage image = new BufferedImage(460, 215, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(0x1b2838));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
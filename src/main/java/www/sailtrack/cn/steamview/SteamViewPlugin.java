@@ -1,8 +1,11 @@
 package www.sailtrack.cn.steamview;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import run.halo.app.plugin.BasePlugin;
 import run.halo.app.plugin.PluginContext;
+import www.sailtrack.cn.steamview.service.CacheWarmup;
+import www.sailtrack.cn.steamview.service.GameRefreshScheduler;
 
 /**
  * <p>Plugin main class to manage the lifecycle of the plugin.</p>
@@ -12,20 +15,32 @@ import run.halo.app.plugin.PluginContext;
  * @author miku_0410
  * @since 1.0.0
  */
+@Slf4j
 @Component
 public class SteamViewPlugin extends BasePlugin {
 
-    public SteamViewPlugin(PluginContext pluginContext) {
+    private final GameRefreshScheduler gameRefreshScheduler;
+    private final CacheWarmup cacheWarmup;
+
+    public SteamViewPlugin(PluginContext pluginContext, GameRefreshScheduler gameRefreshScheduler,
+                           CacheWarmup cacheWarmup) {
         super(pluginContext);
+        this.gameRefreshScheduler = gameRefreshScheduler;
+        this.cacheWarmup = cacheWarmup;
     }
 
     @Override
     public void start() {
-        System.out.println("插件启动成功！");
+        // 预热在后台进行，不阻塞插件启动
+        cacheWarmup.start();
+        gameRefreshScheduler.start();
+        log.info("插件启动成功！");
     }
 
     @Override
     public void stop() {
-        System.out.println("插件停止！");
+        gameRefreshScheduler.stop();
+        cacheWarmup.stop();
+        log.info("插件停止！");
     }
 }
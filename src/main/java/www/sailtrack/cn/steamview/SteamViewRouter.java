@@ -1,5 +1,9 @@
 package www.sailtrack.cn.steamview;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.pf4j.PluginWrapper;
@@ -10,15 +14,31 @@ import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import run.halo.app.theme.TemplateNameResolver;
+import www.sailtrack.cn.steamview.model.GameIndex;
+import www.sailtrack.cn.steamview.model.GameQuery;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.GameSort;
+import www.sailtrack.cn.steamview.model.GamesResponse;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+import www.sailtrack.cn.steamview.model.SteamViewPage;
+import www.sailtrack.cn.steamview.service.GameCacheService;
+import www.sailtrack.cn.steamview.service.GameRefreshService;
+import www.sailtrack.cn.steamview.service.SteamViewConfigService;
 
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 
 /**
  * Steam View 路由配置
+ * <p>页面直接渲染内存快照的第一页游戏和统计数据，并内联同样的数据供前端接管，
+ * 首屏只需要一次请求。没有快照时渲染加载状态，由前端请求接口获取。</p>
  *
  * @author miku_0410
  * @since 1.0.0
@@ -28,8 +48,25 @@ import static org.springframework.web.reactive.function.server.RouterFunctions.r
 @AllArgsConstructor
 public class SteamViewRouter {
 
+    /**
+     * 首屏游戏数量，与前端每页数量一致
+     */
+    private static final int FIRST_PAGE_SIZE = 12;
+
     private final TemplateNameResolver templateNameResolver;
     private final PluginWrapper pluginWrapper;
+    private final SteamViewConfigService configService;
+    private final GameCacheService gameCacheService;
+    private final GameRefreshService gameRefreshService;
+
+    /**
+     * 各排序方式的首屏数据，快照或过期状态变化时重新生成
+     */
+    private final Map<GameSort, FirstPage> firstPages = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
     @Bean
     RouterFunction<ServerResponse> steamViewRouterFunction() {
@@ -39,13 +76,20 @@ public class SteamViewRouter {
     private Mono<ServerResponse> renderSteamViewPage(ServerRequest request) {
         log.info("开始渲染 Steam View 页面");
 
+        GameSort sort = GameSort.from(request.queryParam("sort").orElse(null));
         Map<String, Object> model = new HashMap<>();
         model.put("version", pluginWrapper.getDescriptor().getVersion());
+        model.put("sort", sort.getValue());
+        model.put("stats", SteamViewPage.Summary.EMPTY);
+        model.put("games", List.of());
+        model.put("total", 0);
 
-        return templateNameResolver.resolveTemplateNameOrDefault(
+        return firstPage(sort)
+            .doOnNext(page -> model.putAll(page.model()))
+            .then(templateNameResolver.resolveTemplateNameOrDefault(
                 request.exchange(),
                 "steamview"
-            )
+            ))
             .flatMap(templateName -> {
                 log.info("使用模板: {}", templateName);
                 return ServerResponse.ok()
@@ -57,4 +101,84 @@ public class SteamViewRouter {
                     .bodyValue("渲染 Steam View 页面失败: " + e.getMessage());
             });
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取默认账号当前快照的首屏数据
+     * <p>只读取内存中的快照，不会为渲染页面而等待 Steam 刷新；数据过期时在后台刷新。</p>
+     *
+     * @param sort 排序方式
+     * @return 首屏数据，没有快照或读取失败时为空
+     */
+    private Mono<FirstPage> firstPage(GameSort sort) {
+        String accountId = SteamAccount.DEFAULT_ID;
+        return configService.getConfig()
+            .flatMap(config -> gameCacheService.getCachedGames(accountId)
+                .map(snapshot -> {
+                    boolean stale = snapshot.library().isExpired(config.refreshInterval());
+                    if (stale) {
+                        gameRefreshService.refreshInBackground(accountId);
+                    }
+                    return firstPages.compute(sort, (key, cached) ->
+                        cached != null && cached.snapshot() == snapshot && cached.stale() == stale
+                            ? cached : buildFirstPage(snapshot, stale, sort));
+                }))
+            .onErrorResume(e -> {
+                log.warn("读取首屏数据失败，由前端加载: {}", e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private FirstPage buildFirstPage(GameSnapshot snapshot, boolean stale, GameSort sort) {
+        GameQuery query = new GameQuery(1, FIRST_PAGE_SIZE, sort, false, null);
+        GameIndex.Page result = query.execute(snapshot.index());
+        GamesResponse response = GamesResponse.page(snapshot.library(), stale, result, 1, FIRST_PAGE_SIZE);
+
+        Map<String, Object> bootstrap = new LinkedHashMap<>();
+        bootstrap.put("sort", sort.getValue());
+        bootstrap.put("data", response);
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("stats", SteamViewPage.Summary.of(snapshot.library().stats()));
+        model.put("games", result.items().stream().map(SteamViewPage.Card::of).toList());
+        model.put("total", result.total());
+        model.put("bootstrap", toScriptJson(bootstrap));
+        return new FirstPage(snapshot, stale, Map.copyOf(model));
+    }
+
+    /**
+     * 序列化为可以直接放入 {@code <script>} 元素的 JSON
+     * <p>JSON 中的尖括号、&amp; 和行分隔符只会出现在字符串内，替换为 Unicode 转义后含义不变，
+     * 游戏名称中的 {@code </script>} 也就无法提前结束脚本元素。</p>
+     */
+    private String toScriptJson(Object value) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("序列化首屏数据失败", e);
+        }
+        StringBuilder result = new StringBuilder(json.length() + 16);
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            switch (c) {
+                case '<' -> result.append("\\u003c");
+                case '>' -> result.append("\\u003e");
+                case '&' -> result.append("\\u0026");
+                case '\u2028' -> result.append("\\u2028");
+                case '\u2029' -> result.append("\\u2029");
+                default -> result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * 首屏数据
+     *
+     * @param snapshot 生成时的快照
+     * @param stale    生成时数据是否已过期
+     * @param model    模板变量：统计卡片、游戏卡片、游戏总数和内联 JSON
+     */
+    private record FirstPage(GameSnapshot snapshot, boolean stale, Map<String, Object> model) {
+    }
+}
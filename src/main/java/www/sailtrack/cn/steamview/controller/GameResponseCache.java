@@ -0,0 +1,226 @@
+package www.sailtrack.cn.steamview.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import www.sailtrack.cn.steamview.event.SnapshotWarmedEvent;
+import www.sailtrack.cn.steamview.model.GameQuery;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.GamesResponse;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 游戏数据响应缓存
+ * <p>为当前快照保存序列化和 gzip 压缩后的完整响应字节，直接写出而无需每次重新序列化；
+ * 响应带有由快照版本生成的强 ETag，客户端携带 {@code If-None-Match} 时返回 304。</p>
+ * <p>各账号的完整响应分别缓存，默认账号以外的 ETag 包含账号标识，避免不同账号的同一版本号互相命中；
+ * 分页响应的 ETag 包含规范化查询参数的 SHA-256 摘要，不同查询不会得到相同的 ETag。</p>
+ * <p>JDK 没有 Brotli 编码器，为避免引入原生库依赖只提供 gzip 压缩。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class GameResponseCache {
+
+    /**
+     * 小于该大小的响应不压缩
+     */
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 各账号完整响应的编码结果，下标 0 为未过期、1 为已过期
+     */
+    private final Map<String, AtomicReferenceArray<EncodedBody>> fullBodies = new ConcurrentHashMap<>();
+
+    public GameResponseCache() {
+        this.objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * 生成游戏数据响应
+     *
+     * @param accountId 账号标识
+     * @param snapshot  游戏库快照
+     * @param stale     数据是否已过期
+     * @param query     分页查询参数，为 null 时返回全部游戏
+     * @param request   当前请求
+     * @return 响应
+     */
+    public ResponseEntity<byte[]> render(String accountId, GameSnapshot snapshot, boolean stale, GameQuery query,
+                                         ServerHttpRequest request) {
+        boolean gzip = acceptsGzip(request);
+        String tag = versionTag(accountId, snapshot, stale, query);
+
+        // 先用 ETag 判断，命中时无需序列化
+        if (matches(request, tag, gzip)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag(tag, gzip))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        EncodedBody body = query == null
+            ? fullBody(accountId, snapshot, stale)
+            : EncodedBody.encode(serialize(GamesResponse.page(snapshot.library(), stale,
+                query.execute(snapshot.index()), query.page(), query.size())), snapshot);
+
+        boolean compressed = gzip && body.gzip() != null;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(etag(tag, compressed))
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (compressed) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(compressed ? body.gzip() : body.json());
+    }
+
+    /**
+     * 启动预热加载快照后预先编码完整响应，使首个请求直接写出缓存的字节
+     *
+     * @param event 快照预热事件
+     */
+    @EventListener
+    public void onSnapshotWarmed(SnapshotWarmedEvent event) {
+        fullBody(event.getAccountId(), event.getSnapshot(), event.isStale());
+    }
+
+    /**
+     * 获取完整响应的编码结果，快照变化时重新编码
+     */
+    private EncodedBody fullBody(String accountId, GameSnapshot snapshot, boolean stale) {
+        int slot = stale ? 1 : 0;
+        AtomicReferenceArray<EncodedBody> bodies = fullBodies.computeIfAbsent(accountId,
+            id -> new AtomicReferenceArray<>(2));
+        EncodedBody cached = bodies.get(slot);
+        if (cached != null && cached.snapshot() == snapshot) {
+            return cached;
+        }
+        EncodedBody encoded = EncodedBody.encode(serialize(GamesResponse.of(snapshot.library(), stale)), snapshot);
+        bodies.set(slot, encoded);
+        log.debug("已编码账号 {} 的完整游戏数据响应：{} 字节，压缩后 {} 字节", accountId, encoded.json().length,
+            encoded.gzip() == null ? 0 : encoded.gzip().length);
+        return encoded;
+    }
+
+    private byte[] serialize(GamesResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 生成由账号、快照版本、过期状态和查询参数组成的版本标识
+     */
+    private static String versionTag(String accountId, GameSnapshot snapshot, boolean stale, GameQuery query) {
+        String version = snapshot.version() != null
+            ? Long.toString(snapshot.version())
+            : Integer.toHexString(System.identityHashCode(snapshot));
+        StringBuilder tag = new StringBuilder();
+        if (!SteamAccount.DEFAULT_ID.equals(accountId)) {
+            tag.append(accountId).append('-');
+        }
+        tag.append('v').append(version).append(stale ? "-s" : "-f");
+        if (query != null) {
+            // 关键词放在最后且为 null 时省略分隔符，规范化后的查询与字符串一一对应
+            String queryKey = query.page() + ":" + query.size() + ":" + query.sort().getValue() + ":"
+                + query.reversed() + (query.keyword() == null ? "" : ":" + query.keyword());
+            tag.append('-').append(digest(queryKey));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * 计算字符串的 SHA-256 摘要（十六进制），可以直接放入 ETag
+     */
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String etag(String tag, boolean gzip) {
+        return "\"" + tag + (gzip ? "-gz" : "") + "\"";
+    }
+
+    private static boolean matches(ServerHttpRequest request, String tag, boolean gzip) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        if (ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String expected = etag(tag, gzip);
+        String plain = etag(tag, false);
+        for (String candidate : ifNoneMatch) {
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(value) || expected.equals(value) || plain.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    /**
+     * 编码后的响应体
+     *
+     * @param json     JSON 字节
+     * @param gzip     gzip 压缩后的字节，响应过小时为 null
+     * @param snapshot 对应的快照
+     */
+    private record EncodedBody(byte[] json, byte[] gzip, GameSnapshot snapshot) {
+
+        static EncodedBody encode(byte[] json, GameSnapshot snapshot) {
+            return new EncodedBody(json, json.length < MIN_GZIP_SIZE ? null : gzip(json), snapshot);
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return output.toByteArray();
+        }
+    }
+}
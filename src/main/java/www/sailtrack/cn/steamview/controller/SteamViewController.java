@@ -2,21 +2,53 @@ package www.sailtrack.cn.steamview.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import www.sailtrack.cn.steamview.model.CoverVariant;
+import www.sailtrack.cn.steamview.model.GameChangesResponse;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.GameQuery;
+import www.sailtrack.cn.steamview.model.GameSearchIndex;
+import www.sailtrack.cn.steamview.model.GameSearchResponse;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.LibraryStats;
+import www.sailtrack.cn.steamview.model.PlaytimeHistory;
+import www.sailtrack.cn.steamview.model.RefreshProgress;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+import www.sailtrack.cn.steamview.model.SteamViewConfig;
+import www.sailtrack.cn.steamview.service.CacheWarmup;
+import www.sailtrack.cn.steamview.service.CoverCacheService;
 import www.sailtrack.cn.steamview.service.GameCacheService;
+import www.sailtrack.cn.steamview.service.GameChangeLog;
+import www.sailtrack.cn.steamview.service.GameRefreshService;
+import www.sailtrack.cn.steamview.service.PlaytimeHistoryService;
+import www.sailtrack.cn.steamview.service.RefreshProgressService;
+import www.sailtrack.cn.steamview.service.StatsEngine;
 import www.sailtrack.cn.steamview.service.SteamApiService;
+import www.sailtrack.cn.steamview.service.SteamRequestGuard;
 import www.sailtrack.cn.steamview.service.SteamViewConfigService;
+import www.sailtrack.cn.steamview.service.SteamViewMetrics;
 
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.ArrayList;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,141 +65,369 @@ import java.util.Map;
 @AllArgsConstructor
 public class SteamViewController {
 
+    /**
+     * 封面的浏览器缓存时长
+     */
+    private static final Duration COVER_MAX_AGE = Duration.ofDays(30);
+
+    /**
+     * 报告启动预热状态的响应头
+     */
+    private static final String WARMUP_HEADER = "X-SteamView-Warmup";
+
+    /**
+     * 事件流的心跳间隔，避免空闲连接被代理断开
+     */
+    private static final Duration EVENT_HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
     private final SteamApiService steamApiService;
     private final SteamViewConfigService configService;
     private final GameCacheService gameCacheService;
+    private final GameRefreshService gameRefreshService;
+    private final GameResponseCache gameResponseCache;
+    private final GameChangeLog gameChangeLog;
+    private final PlaytimeHistoryService playtimeHistoryService;
+    private final StatsEngine statsEngine;
+    private final CoverCacheService coverCacheService;
+    private final CacheWarmup cacheWarmup;
+    private final RefreshProgressService refreshProgressService;
+    private final SteamViewMetrics metrics;
 
     /**
      * 获取游戏数据
+     * <p>返回结果包含 {@code lastUpdated} 和 {@code stale}，过期数据会立即返回并在后台刷新。</p>
+     * <p>未指定 {@code size} 时返回全部游戏；指定后按预排序索引返回一页。</p>
+     * <p>响应带有强 ETag，支持 {@code If-None-Match} 协商缓存和 gzip 压缩。</p>
+     * <p>启动预热状态（pending、warming、ready、failed）通过 {@code X-SteamView-Warmup} 响应头返回，
+     * 不写入响应体，以免影响缓存的响应字节和 ETag。</p>
      *
+     * @param page     页码，从 1 开始
+     * @param size     每页数量
+     * @param sort     排序方式：twoWeekTime、totalTime、name、lastPlayed
+     * @param order    排序方向：asc 或 desc，默认名称升序、其余降序
+     * @param keyword  名称关键词
+     * @param account  账号标识，为空时使用默认账号
+     * @param exchange 当前请求
      * @return 游戏数据列表
      */
     @GetMapping("/games")
     @PreAuthorize("permitAll()")
-    public Mono<Map<String, Object>> getGames() {
-        log.info("开始获取游戏数据");
+    public Mono<ResponseEntity<byte[]>> getGames(@RequestParam(required = false) Integer page,
+                                                 @RequestParam(required = false) Integer size,
+                                                 @RequestParam(required = false) String sort,
+                                                 @RequestParam(required = false) String order,
+                                                 @RequestParam(required = false) String keyword,
+                                                 @RequestParam(required = false) String account,
+                                                 ServerWebExchange exchange) {
+        log.debug("开始获取游戏数据");
+        GameQuery query = GameQuery.from(page, size, sort, order, keyword);
+        exchange.getResponse().getHeaders().set(WARMUP_HEADER, cacheWarmup.getStatus().getValue());
+
+        return configService.getConfig()
+            .flatMap(config -> {
+                String accountId = accountId(config, account);
+                return gameCacheService.getCachedGames(accountId)
+                    .map(snapshot -> gameResponseCache.render(accountId, snapshot,
+                        checkStale(accountId, snapshot.library(), config), query, exchange.getRequest()))
+                    // 缓存不存在，从 Steam API 获取（并发请求共享同一次刷新）
+                    .switchIfEmpty(Mono.defer(() -> missCache(accountId)
+                        .flatMap(library -> gameCacheService.getCachedGames(accountId)
+                            .switchIfEmpty(Mono.fromSupplier(() -> GameSnapshot.of(library, null))))
+                        .map(snapshot -> gameResponseCache.render(accountId, snapshot, false, query,
+                            exchange.getRequest()))));
+            })
+            .doOnError(e -> log.error("获取游戏数据失败: {}", e.getMessage()));
+    }
 
-        return configService.getRefreshInterval()
-            .flatMap(refreshInterval -> {
-                // 先尝试从缓存获取
-                return gameCacheService.getCachedGames(refreshInterval)
-                    .flatMap(cachedData -> {
-                        if (cachedData != null) {
-                            log.info("使用缓存数据");
-                            return Mono.just(cachedData);
-                        }
-                        // 缓存不存在或过期，从 Steam API 获取
-                        return fetchFromSteamApi();
+    /**
+     * 获取指定版本之后变化的游戏
+     * <p>变更日志已截断（如插件重启）或版本无效时返回完整列表并标记 {@code resync}。</p>
+     *
+     * @param since   客户端持有的快照版本
+     * @param account 账号标识，为空时使用默认账号
+     * @return 增量数据
+     */
+    @GetMapping("/games/changes")
+    @PreAuthorize("permitAll()")
+    public Mono<GameChangesResponse> getGameChanges(@RequestParam long since,
+                                                    @RequestParam(required = false) String account) {
+        return configService.getConfig()
+            .flatMap(config -> {
+                String accountId = accountId(config, account);
+                return gameCacheService.getCachedGames(accountId)
+                    .map(snapshot -> {
+                        GameLibrary library = snapshot.library();
+                        boolean stale = checkStale(accountId, library, config);
+                        return gameChangeLog.changedSince(accountId, since, library.version())
+                            .map(appIds -> GameChangesResponse.delta(library, stale, appIds))
+                            .orElseGet(() -> GameChangesResponse.resync(library, stale));
                     })
-                    .switchIfEmpty(fetchFromSteamApi());
+                    // 缓存不存在，从 Steam API 获取后完整同步
+                    .switchIfEmpty(Mono.defer(() -> missCache(accountId)
+                        .flatMap(library -> gameCacheService.getCachedGames(accountId)
+                            .map(GameSnapshot::library)
+                            .defaultIfEmpty(library))
+                        .map(library -> GameChangesResponse.resync(library, false))));
             })
-            .doOnError(e -> log.error("获取游戏数据失败: {}", e.getMessage()));
+            .doOnError(e -> log.error("获取游戏变更失败: {}", e.getMessage()));
     }
 
     /**
-     * 从 Steam API 获取游戏数据
+     * 搜索游戏
+     * <p>匹配名称、Steam 原始名称以及中文名称的全拼和拼音首字母，忽略大小写、空白和标点；
+     * 结果按完全匹配、前缀、词首、包含排序，同分时总时长长的在前。</p>
      *
-     * @return 游戏数据
+     * @param q       查询串
+     * @param limit   返回数量，默认 20，最多 100
+     * @param account 账号标识，为空时使用默认账号
+     * @return 搜索结果
      */
-    private Mono<Map<String, Object>> fetchFromSteamApi() {
-        log.info("从 Steam API 获取游戏数据");
+    @GetMapping("/games/search")
+    @PreAuthorize("permitAll()")
+    public Mono<GameSearchResponse> searchGames(@RequestParam String q,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String account) {
+        int resultLimit = limit == null ? GameSearchIndex.DEFAULT_LIMIT : limit;
+        return configService.getConfig()
+            .flatMap(config -> {
+                String accountId = accountId(config, account);
+                return gameCacheService.getCachedGames(accountId)
+                    .map(snapshot -> GameSearchResponse.of(snapshot,
+                        checkStale(accountId, snapshot.library(), config), q, resultLimit))
+                    // 缓存不存在，从 Steam API 获取
+                    .switchIfEmpty(Mono.defer(() -> missCache(accountId)
+                        .flatMap(library -> gameCacheService.getCachedGames(accountId)
+                            .switchIfEmpty(Mono.fromSupplier(() -> GameSnapshot.of(library, null))))
+                        .map(snapshot -> GameSearchResponse.of(snapshot, false, q, resultLimit))));
+            })
+            .doOnError(e -> log.error("搜索游戏失败: {}", e.getMessage()));
+    }
 
-        return configService.getSteamApiKey()
-            .flatMap(apiKey -> {
-                if (apiKey == null || apiKey.isEmpty()) {
-                    return Mono.error(new RuntimeException("Steam API Key 未配置"));
-                }
+    /**
+     * 获取游戏库统计：合计、各指标排行、时长分桶和最后游玩时间分桶
+     *
+     * @param top     每个排行的数量，默认 10，最多 50
+     * @param account 账号标识，为空时使用默认账号
+     * @return 统计数据
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("permitAll()")
+    public Mono<LibraryStats> getStats(@RequestParam(required = false) Integer top,
+                                       @RequestParam(required = false) String account) {
+        return configService.getConfig()
+            .flatMap(config -> {
+                String accountId = accountId(config, account);
+                return gameCacheService.getCachedGames(accountId)
+                    .map(snapshot -> {
+                        checkStale(accountId, snapshot.library(), config);
+                        return statsEngine.stats(accountId, snapshot.library(), top);
+                    })
+                    // 缓存不存在，从 Steam API 获取
+                    .switchIfEmpty(Mono.defer(() -> missCache(accountId)
+                        .flatMap(library -> gameCacheService.getCachedGames(accountId)
+                            .map(GameSnapshot::library)
+                            .defaultIfEmpty(library))
+                        .map(library -> statsEngine.stats(accountId, library, top))));
+            })
+            .doOnError(e -> log.error("获取游戏库统计失败: {}", e.getMessage()));
+    }
 
-                return configService.getSteamId()
-                    .flatMap(steamId -> {
-                        if (steamId == null || steamId.isEmpty()) {
-                            return Mono.error(new RuntimeException("Steam ID 未配置"));
-                        }
+    /**
+     * 获取账号列表，不包含 API Key
+     *
+     * @return 账号标识和显示名称，默认账号在前
+     */
+    @GetMapping("/accounts")
+    @PreAuthorize("permitAll()")
+    public Mono<List<Map<String, Object>>> getAccounts() {
+        return configService.getConfig()
+            .map(config -> config.accounts().stream()
+                .map(account -> {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("id", account.id());
+                    result.put("name", account.name());
+                    result.put("default", account.isDefault());
+                    return result;
+                })
+                .toList());
+    }
 
-                        // 同时获取拥有的游戏和最近游玩的游戏（包括家庭共享）
-                        return Mono.zip(
-                            steamApiService.getOwnedGames(apiKey, steamId),
-                            steamApiService.getRecentlyPlayedGames(apiKey, steamId)
-                        ).flatMap(tuple -> {
-                            List<Map<String, Object>> ownedGames = tuple.getT1();
-                            List<Map<String, Object>> recentlyPlayedGames = tuple.getT2();
+    /**
+     * 获取游戏时长历史
+     * <p>未指定日期时返回最近 30 天；未指定粒度时，31 天以内返回原始数据点，更长的区间按天汇总。
+     * 区间会截断到今天和历史数据的保留期限之内。</p>
+     *
+     * @param appId      游戏 App ID
+     * @param from       起始日期（含），格式 yyyy-MM-dd
+     * @param to         结束日期（含），格式 yyyy-MM-dd
+     * @param resolution 时间粒度：raw 或 day
+     * @param account    账号标识，为空时使用默认账号
+     * @return 时长历史
+     */
+    @GetMapping("/games/{appId}/history")
+    @PreAuthorize("permitAll()")
+    public Mono<PlaytimeHistory> getGameHistory(@PathVariable String appId,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(required = false) String resolution,
+                                                @RequestParam(required = false) String account) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        if (from != null && from.isAfter(end)) {
+            return Mono.error(new ServerWebInputException("起始日期不能晚于结束日期"));
+        }
+        return configService.getConfig()
+            .flatMap(config -> playtimeHistoryService.getHistory(accountId(config, account), appId, from, end,
+                resolution))
+            .doOnError(e -> log.error("获取游戏 {} 的时长历史失败: {}", appId, e.getMessage()));
+    }
 
-                            // 合并数据：以拥有的游戏为基础，补充最近游玩的游戏（包括家庭共享）
-                            Map<String, Map<String, Object>> allGamesMap = new HashMap<>();
+    /**
+     * 获取游戏封面
+     * <p>封面从本地磁盘缓存以零拷贝方式发送；获取失败时重定向到 Steam CDN。
+     * 只提供任一账号当前游戏库中的游戏封面，其他 App ID 返回 404，避免匿名请求占满缓存和 CDN 限流配额。</p>
+     *
+     * @param appId   游戏 App ID
+     * @param variant 封面尺寸：original、medium 或 small
+     * @return 封面图片
+     */
+    @GetMapping("/covers/{appId}")
+    @PreAuthorize("permitAll()")
+    public Mono<ResponseEntity<Resource>> getCover(@PathVariable String appId,
+                                                   @RequestParam(required = false) String variant) {
+        if (!CoverCacheService.isValidAppId(appId)) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return isInLibrary(appId)
+            .filter(Boolean::booleanValue)
+            .flatMap(known -> coverCacheService.getCover(appId, CoverVariant.from(variant)))
+            .map(file -> ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(COVER_MAX_AGE).cachePublic())
+                .contentType(MediaType.IMAGE_JPEG)
+                .<Resource>body(new FileSystemResource(file)))
+            .defaultIfEmpty(ResponseEntity.notFound().build())
+            .onErrorResume(e -> {
+                log.warn("获取游戏 {} 的封面失败，重定向到 Steam CDN: {}", appId, e.getMessage());
+                return Mono.just(ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create(steamApiService.getGameCoverUrl(appId)))
+                    .build());
+            });
+    }
 
-                            // 先添加拥有的游戏
-                            for (Map<String, Object> game : ownedGames) {
-                                allGamesMap.put((String) game.get("appId"), game);
-                            }
+    /**
+     * 检查游戏是否在任一账号的当前游戏库中
+     *
+     * @param appId 游戏 App ID
+     * @return 是否存在
+     */
+    private Mono<Boolean> isInLibrary(String appId) {
+        return configService.getConfig()
+            .flatMapMany(config -> Flux.fromIterable(config.accounts()))
+            .concatMap(account -> gameCacheService.getCachedGames(account.id()))
+            .any(snapshot -> snapshot.index().contains(appId));
+    }
 
-                            // 补充最近游玩的游戏（包括家庭共享游戏）
-                            for (Map<String, Object> game : recentlyPlayedGames) {
-                                String appId = (String) game.get("appId");
-                                if (!allGamesMap.containsKey(appId)) {
-                                    allGamesMap.put(appId, game);
-                                }
-                            }
+    /**
+     * 解析请求的账号
+     *
+     * @param config  插件配置
+     * @param account 请求参数中的账号标识，为空时使用默认账号
+     * @return 账号标识
+     * @throws ServerWebInputException 账号不存在
+     */
+    private static String accountId(SteamViewConfig config, String account) {
+        return config.account(account)
+            .map(SteamAccount::id)
+            .orElseThrow(() -> new ServerWebInputException("账号不存在: " + account));
+    }
 
-                            List<Map<String, Object>> allGames = new ArrayList<>(allGamesMap.values());
-                            log.info("合并后共 {} 个游戏（包括家庭共享）", allGames.size());
+    /**
+     * 获取可以返回给客户端的错误信息
+     * <p>Steam 请求的异常消息包含带 API Key 的请求 URL，只返回错误代码；插件自身的错误（如刷新过于频繁）返回原消息。</p>
+     *
+     * @param e 错误
+     * @return 错误信息
+     */
+    private static String publicMessage(Throwable e) {
+        String code = SteamRequestGuard.errorCode(e);
+        return "internal-error".equals(code) ? e.getMessage() : code;
+    }
 
-                            return processGames(allGames)
-                                .flatMap(result -> {
-                                    // 添加更新时间戳
-                                    result.put("lastUpdated", Instant.now().toString());
-                                    // 保存到缓存
-                                    return gameCacheService.saveCachedGames(result)
-                                        .thenReturn(result);
-                                });
-                        });
-                    });
-            });
+    /**
+     * 缓存不存在时从 Steam API 获取（并发请求共享同一次刷新）
+     *
+     * @param accountId 账号标识
+     * @return 游戏库快照
+     */
+    private Mono<GameLibrary> missCache(String accountId) {
+        metrics.cacheMiss();
+        return gameRefreshService.refresh(accountId);
+    }
+
+    /**
+     * 检查数据是否过期，过期时在后台刷新
+     *
+     * @param accountId 账号标识
+     * @param library   游戏库快照
+     * @param config    插件配置
+     * @return 是否过期
+     */
+    private boolean checkStale(String accountId, GameLibrary library, SteamViewConfig config) {
+        boolean stale = library.isExpired(config.refreshInterval());
+        // 缓存已过期：立即返回旧数据，同时在后台刷新
+        if (stale) {
+            metrics.cacheStale();
+            gameRefreshService.refreshInBackground(accountId);
+        } else {
+            metrics.cacheHit();
+        }
+        return stale;
     }
 
     /**
      * 测试 Steam API 连接
      *
+     * @param account 账号标识，为空时使用默认账号
      * @return 测试结果
      */
     @GetMapping("/test")
     @PreAuthorize("permitAll()")
-    public Mono<Map<String, Object>> testConnection() {
+    public Mono<Map<String, Object>> testConnection(@RequestParam(required = false) String account) {
         log.info("开始测试 Steam API 连接");
 
-        return configService.getSteamApiKey()
-            .switchIfEmpty(Mono.just(""))
-            .flatMap(apiKey -> {
-                if (apiKey.isEmpty()) {
+        return configService.getConfig()
+            .map(config -> config.account(account)
+                .orElseThrow(() -> new ServerWebInputException("账号不存在: " + account)))
+            .flatMap(steamAccount -> {
+                if (steamAccount.steamApiKey().isEmpty()) {
                     Map<String, Object> result = new HashMap<>();
                     result.put("success", false);
                     result.put("message", "Steam API Key 未配置");
                     return Mono.just(result);
                 }
 
-                return configService.getSteamId()
-                    .switchIfEmpty(Mono.just(""))
-                    .flatMap(steamId -> {
-                        if (steamId.isEmpty()) {
-                            Map<String, Object> result = new HashMap<>();
-                            result.put("success", false);
-                            result.put("message", "Steam ID 未配置");
-                            return Mono.just(result);
-                        }
+                if (steamAccount.steamId().isEmpty()) {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("success", false);
+                    result.put("message", "Steam ID 未配置");
+                    return Mono.just(result);
+                }
 
-                        return steamApiService.getOwnedGames(apiKey, steamId)
-                            .map(games -> {
-                                Map<String, Object> result = new HashMap<>();
-                                result.put("success", true);
-                                result.put("message", "连接成功！找到 " + games.size() + " 个游戏");
-                                result.put("gameCount", games.size());
-                                return result;
-                            })
-                            .onErrorResume(e -> {
-                                Map<String, Object> result = new HashMap<>();
-                                result.put("success", false);
-                                result.put("message", "连接失败: " + e.getMessage());
-                                return Mono.just(result);
-                            });
+                return steamApiService.getOwnedGames(steamAccount.steamApiKey(), steamAccount.steamId())
+                    .map(games -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("success", true);
+                        result.put("message", "连接成功！找到 " + games.size() + " 个游戏");
+                        result.put("gameCount", games.size());
+                        return result;
+                    })
+                    .onErrorResume(e -> {
+                        log.warn("测试 Steam API 连接失败: {}", e.getMessage());
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("success", false);
+                        result.put("message", "连接失败: " + publicMessage(e));
+                        return Mono.just(result);
                     });
             });
     }
@@ -175,14 +435,15 @@ public class SteamViewController {
     /**
      * 手动刷新游戏数据
      *
+     * @param account 账号标识，为空时使用默认账号
      * @return 刷新结果
      */
     @PostMapping("/refresh")
     @PreAuthorize("permitAll()")
-    public Mono<Map<String, Object>> refreshGames() {
+    public Mono<Map<String, Object>> refreshGames(@RequestParam(required = false) String account) {
         log.info("手动刷新游戏数据");
 
-        return fetchFromSteamApi()
+        return gameRefreshService.manualRefresh(account)
             .flatMap(result -> {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
@@ -191,111 +452,38 @@ public class SteamViewController {
                 return Mono.just(response);
             })
             .onErrorResume(e -> {
+                log.warn("手动刷新游戏数据失败: {}", e.getMessage());
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
-                response.put("message", "刷新失败: " + e.getMessage());
+                response.put("message", "刷新失败: " + publicMessage(e));
                 return Mono.just(response);
             });
     }
 
     /**
-     * 处理游戏数据
+     * 订阅刷新进度和快照更新事件（Server-Sent Events）
+     * <p>事件类型：refresh-started、refresh-phase、refresh-progress（如本地化名称已查询 X/N）、
+     * refresh-completed、refresh-failed，以及新快照提交后的 snapshot-updated（含快照版本）。
+     * 只推送订阅之后发生的事件，客户端收到 snapshot-updated 后可用增量同步接口获取变化。</p>
      *
-     * @param rawGames 原始游戏数据
-     * @return 处理后的游戏数据
+     * @param account 账号标识，为空时使用默认账号
+     * @return 事件流
      */
-    private Mono<Map<String, Object>> processGames(List<Map<String, Object>> rawGames) {
-        return configService.getHiddenGames()
-            .flatMapMany(hiddenGames -> {
-                List<Map<String, Object>> games = new ArrayList<>();
-                long totalTime = 0;
-                long twoWeekTime = 0;
-
-                for (Map<String, Object> rawGame : rawGames) {
-                    String appId = (String) rawGame.get("appId");
-
-                    // 跳过隐藏的游戏
-                    if (hiddenGames.contains(appId)) {
-                        continue;
-                    }
-
-                    long playtimeForever = (Long) rawGame.getOrDefault("playtimeForever", 0L);
-                    long playtime2weeks = (Long) rawGame.getOrDefault("playtime2weeks", 0L);
-
-                    // 移除过滤条件，显示所有游戏（包括家庭库和没玩过的）
-                    // if (playtimeForever == 0 && playtime2weeks == 0) {
-                    //     continue;
-                    // }
-
-                    totalTime += playtimeForever;
-                    twoWeekTime += playtime2weeks;
-
-                    Map<String, Object> game = new HashMap<>();
-                    game.put("appId", appId);
-                    game.put("name", rawGame.get("name"));
-                    game.put("coverUrl", steamApiService.getGameCoverUrl(appId));
-                    game.put("totalTime", playtimeForever);
-                    game.put("twoWeekTime", playtime2weeks);
-
-                    // 格式化最后游玩时间
-                    Long rtimeLastPlayed = (Long) rawGame.get("rtimeLastPlayed");
-                    if (rtimeLastPlayed != null && rtimeLastPlayed > 0) {
-                        ZonedDateTime dateTime = ZonedDateTime.ofInstant(
-                            Instant.ofEpochSecond(rtimeLastPlayed),
-                            ZoneId.systemDefault()
-                        );
-                        game.put("lastPlayed", dateTime.toLocalDate().toString());
-                    } else {
-                        game.put("lastPlayed", "从未游玩");
-                    }
-
-                    games.add(game);
-                }
-
-                // 为每个游戏获取本地化名称（并发请求，限制并发数为 10）
-                return Flux.fromIterable(games)
-                    .flatMap(game -> {
-                        String appId = (String) game.get("appId");
-                        return steamApiService.getLocalizedGameName(appId)
-                            .map(localizedName -> {
-                                if (localizedName != null && !localizedName.isEmpty()) {
-                                    game.put("name", localizedName);
-                                }
-                                return game;
-                            })
-                            .onErrorResume(e -> Mono.just(game)); // 失败时保留原名称
-                    }, 10); // 限制并发数为 10
-            })
-            .collectList()
-            .map(games -> {
-                long totalTime = games.stream()
-                    .mapToLong(g -> (Long) g.get("totalTime"))
-                    .sum();
-                long twoWeekTime = games.stream()
-                    .mapToLong(g -> (Long) g.get("twoWeekTime"))
-                    .sum();
-
-                // 计算百分比
-                for (Map<String, Object> game : games) {
-                    long gameTotalTime = (Long) game.get("totalTime");
-                    long gameTwoWeekTime = (Long) game.get("twoWeekTime");
-
-                    double totalPercent = totalTime > 0 ? (gameTotalTime * 100.0 / totalTime) : 0;
-                    double twoWeekPercent = twoWeekTime > 0 ? (gameTwoWeekTime * 100.0 / twoWeekTime) : 0;
-
-                    game.put("totalPercent", totalPercent);
-                    game.put("twoWeekPercent", twoWeekPercent);
-                }
-
-                Map<String, Object> result = new HashMap<>();
-                result.put("games", games);
-                result.put("stats", Map.of(
-                    "totalGames", games.size(),
-                    "totalTime", totalTime,
-                    "twoWeekTime", twoWeekTime
-                ));
-
-                return result;
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("permitAll()")
+    public Flux<ServerSentEvent<RefreshProgress>> streamEvents(@RequestParam(required = false) String account) {
+        return configService.getConfig()
+            .map(config -> accountId(config, account))
+            .flatMapMany(accountId -> {
+                Flux<ServerSentEvent<RefreshProgress>> events = refreshProgressService.events(accountId)
+                    .map(event -> ServerSentEvent.builder(event)
+                        .event(event.type().getValue())
+                        .build());
+                Flux<ServerSentEvent<RefreshProgress>> heartbeats = Flux.interval(EVENT_HEARTBEAT_INTERVAL)
+                    .map(tick -> ServerSentEvent.<RefreshProgress>builder()
+                        .comment("heartbeat")
+                        .build());
+                return Flux.merge(events, heartbeats);
             });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package www.sailtrack.cn.steamview.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+
+/**
+ * 游戏库快照更新事件
+ * <p>保存新快照或从扩展存储加载快照后发布。{@code previous} 为 null 表示无法与上一版本比较
+ * （如插件启动后首次加载、其他实例写入了缓存），监听方应以 {@code current} 为新的基准。</p>
+ * <p>各账号的快照相互独立，监听方按 {@code accountId} 分别维护状态。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Getter
+public class GameLibraryUpdatedEvent extends ApplicationEvent {
+
+    private final String accountId;
+    private final GameLibrary previous;
+    private final GameLibrary current;
+
+    public GameLibraryUpdatedEvent(Object source, String accountId, GameLibrary previous, GameLibrary current) {
+        super(source);
+        this.accountId = accountId;
+        this.previous = previous;
+        this.current = current;
+    }
+}
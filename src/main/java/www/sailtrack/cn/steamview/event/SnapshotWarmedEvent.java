@@ -0,0 +1,27 @@
+package www.sailtrack.cn.steamview.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+
+/**
+ * 快照预热事件
+ * <p>启动预热加载账号的快照后发布，监听方可以据此预先生成响应等派生数据，使首个请求直接使用。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Getter
+public class SnapshotWarmedEvent extends ApplicationEvent {
+
+    private final String accountId;
+    private final GameSnapshot snapshot;
+    private final boolean stale;
+
+    public SnapshotWarmedEvent(Object source, String accountId, GameSnapshot snapshot, boolean stale) {
+        super(source);
+        this.accountId = accountId;
+        this.snapshot = snapshot;
+        this.stale = stale;
+    }
+}
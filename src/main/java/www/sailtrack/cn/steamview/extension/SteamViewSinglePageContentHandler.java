@@ -1,107 +1,145 @@
 package www.sailtrack.cn.steamview.extension;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
 import reactor.core.publisher.Mono;
 import run.halo.app.theme.ReactiveSinglePageContentHandler;
+import www.sailtrack.cn.steamview.model.GameQuery;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.GameSort;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+import www.sailtrack.cn.steamview.model.SteamViewPage;
+import www.sailtrack.cn.steamview.service.GameCacheService;
+
+import java.util.List;
 
 /**
  * Steam View 单页内容处理器
+ * <p>将名为 steamview 的单页内容替换为默认账号游戏库的统计数据和总时长最长的游戏。
+ * 内容片段按快照版本缓存，版本不变时直接使用缓存的字符串。</p>
  *
  * @author miku_0410
  * @since 1.0.0
  */
+@Slf4j
 @Component
 public class SteamViewSinglePageContentHandler implements ReactiveSinglePageContentHandler {
 
+    private static final String SINGLE_PAGE_NAME = "steamview";
+
+    /**
+     * 内容片段中展示的游戏数量
+     */
+    private static final int TOP_GAMES = 10;
+
+    private static final String PLACEHOLDER = """
+        <div class="steamview-summary">
+            <p class="steamview-loading">游戏数据尚未加载，<a href="/steamview">查看 Steam 游戏统计</a></p>
+        </div>
+        """;
+
+    private final GameCacheService gameCacheService;
+
+    /**
+     * 最近一次生成的内容片段
+     */
+    private volatile Fragment fragment;
+
+    public SteamViewSinglePageContentHandler(GameCacheService gameCacheService) {
+        this.gameCacheService = gameCacheService;
+    }
+
     @Override
     public Mono<SinglePageContentContext> handle(SinglePageContentContext context) {
         // 检查是否是 Steam View 页面
-        if (context.getSinglePage() != null &&
-            "steamview".equals(context.getSinglePage().getMetadata().getName())) {
+        if (context.getSinglePage() == null
+            || !SINGLE_PAGE_NAME.equals(context.getSinglePage().getMetadata().getName())) {
+            return Mono.just(context);
+        }
 
-            // 替换页面内容为 Steam View 的 HTML
-            String steamViewHtml = generateSteamViewHtml();
-            context.setContent(steamViewHtml);
+        return gameCacheService.getCachedGames(SteamAccount.DEFAULT_ID)
+            .map(this::fragmentOf)
+            .defaultIfEmpty(PLACEHOLDER)
+            .onErrorResume(e -> {
+                log.warn("读取游戏数据失败，单页使用占位内容: {}", e.getMessage());
+                return Mono.just(PLACEHOLDER);
+            })
+            .map(html -> {
+                context.setContent(html);
+                return context;
+            });
+    }
+
+    /**
+     * 获取快照的内容片段，快照版本变化时重新生成
+     *
+     * @param snapshot 游戏库快照
+     * @return HTML 片段
+     */
+    private String fragmentOf(GameSnapshot snapshot) {
+        Fragment current = fragment;
+        if (current != null && snapshot.version() != null && snapshot.version().equals(current.version())) {
+            return current.html();
+        }
+        String html = render(snapshot);
+        // 尚未持久化的快照没有版本，不缓存
+        if (snapshot.version() != null) {
+            fragment = new Fragment(snapshot.version(), html);
+            log.debug("已生成 Steam View 单页内容，快照版本: {}", snapshot.version());
         }
+        return html;
+    }
+
+    private static String render(GameSnapshot snapshot) {
+        SteamViewPage.Summary stats = SteamViewPage.Summary.of(snapshot.library().stats());
+        List<SteamViewPage.Card> games = new GameQuery(1, TOP_GAMES, GameSort.TOTAL_TIME, false, null)
+            .execute(snapshot.index())
+            .items()
+            .stream()
+            .map(SteamViewPage.Card::of)
+            .toList();
+
+        StringBuilder html = new StringBuilder(1024 + games.size() * 512);
+        html.append("<div class=\"steamview-summary\">\n");
+        html.append("<ul class=\"steamview-stats\">\n");
+        appendStat(html, "游戏总数", String.valueOf(stats.totalGames()));
+        appendStat(html, "总游戏时长", stats.totalTime());
+        appendStat(html, "两周游戏时长", stats.twoWeekTime());
+        appendStat(html, "两周活跃游戏", String.valueOf(stats.twoWeekGames()));
+        html.append("</ul>\n");
 
-        return Mono.just(context);
+        html.append("<ol class=\"steamview-top-games\">\n");
+        for (SteamViewPage.Card game : games) {
+            html.append("<li class=\"steamview-game\">")
+                .append("<img src=\"").append(escape(game.coverUrl()))
+                .append("\" alt=\"").append(escape(game.name())).append("\" loading=\"lazy\">")
+                .append("<span class=\"steamview-game-name\">").append(escape(game.name())).append("</span>")
+                .append("<span class=\"steamview-game-time\">").append(escape(game.totalTime())).append("</span>")
+                .append("</li>\n");
+        }
+        html.append("</ol>\n");
+        html.append("<p class=\"steamview-more\"><a href=\"/steamview\">查看全部游戏</a></p>\n");
+        html.append("</div>\n");
+        return html.toString();
+    }
+
+    private static void appendStat(StringBuilder html, String label, String value) {
+        html.append("<li><span class=\"steamview-stat-label\">").append(label)
+            .append("</span><span class=\"steamview-stat-value\">").append(escape(value))
+            .append("</span></li>\n");
     }
-    
+
+    private static String escape(String value) {
+        return value == null ? "" : HtmlUtils.htmlEscape(value);
+    }
+
     /**
-     * 生成 Steam View 页面的 HTML
+     * 按快照版本缓存的内容片段
+     *
+     * @param version 快照版本
+     * @param html    HTML 片段
      */
-    private String generateSteamViewHtml() {
-        return """
-            <!DOCTYPE html>
-            <html lang="zh-CN">
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <title>Steam View - 游戏时长统计</title>
-                <style>
-                    * {
-                        margin: 0;
-                        padding: 0;
-                        box-sizing: border-box;
-                    }
-                    body {
-                        font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, 'Helvetica Neue', Arial, sans-serif;
-                        background: linear-gradient(135deg, #667eea 0%, #764ba2 100%);
-                        min-height: 100vh;
-                        display: flex;
-                        justify-content: center;
-                        align-items: center;
-                        padding: 20px;
-                    }
-                    .container {
-                        background: white;
-                        border-radius: 20px;
-                        padding: 40px;
-                        max-width: 1200px;
-                        width: 100%;
-                        box-shadow: 0 20px 60px rgba(0, 0, 0, 0.3);
-                    }
-                    h1 {
-                        font-size: 48px;
-                        background: linear-gradient(135deg, #667eea 0%, #764ba2 100%);
-                        -webkit-background-clip: text;
-                        -webkit-text-fill-color: transparent;
-                        background-clip: text;
-                        margin-bottom: 10px;
-                        text-align: center;
-                    }
-                    .subtitle {
-                        text-align: center;
-                        color: #666;
-                        font-size: 18px;
-                        margin-bottom: 30px;
-                    }
-                    .content {
-                        text-align: center;
-                        padding: 40px;
-                        background: #f8f9fa;
-                        border-radius: 10px;
-                    }
-                    .loading {
-                        color: #999;
-                        font-size: 16px;
-                    }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <h1>Steam View</h1>
-                    <p class="subtitle">游戏时长统计</p>
-                    <div class="content">
-                        <p class="loading">正在加载游戏数据...</p>
-                    </div>
-                </div>
-                <script>
-                    // 这里可以添加获取 Steam 数据的逻辑
-                    console.log('Steam View 页面已加载');
-                </script>
-            </body>
-            </html>
-            """;
+    private record Fragment(long version, String html) {
     }
 }
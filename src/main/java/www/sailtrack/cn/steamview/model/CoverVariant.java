@@ -0,0 +1,59 @@
+package www.sailtrack.cn.steamview.model;
+
+/**
+ * 封面尺寸
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public enum CoverVariant {
+
+    /**
+     * Steam 原始封面（460×215）
+     */
+    ORIGINAL("original", 0),
+
+    /**
+     * 中等缩略图，用于游戏卡片
+     */
+    MEDIUM("medium", 320),
+
+    /**
+     * 小缩略图，用于列表
+     */
+    SMALL("small", 184);
+
+    private final String value;
+    private final int width;
+
+    CoverVariant(String value, int width) {
+        this.value = value;
+        this.width = width;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 缩略图宽度（像素），原始封面为 0
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * 解析封面尺寸，无法识别时使用原始封面
+     *
+     * @param value 尺寸参数
+     * @return 封面尺寸
+     */
+    public static CoverVariant from(String value) {
+        for (CoverVariant variant : values()) {
+            if (variant.value.equalsIgnoreCase(value)) {
+                return variant;
+            }
+        }
+        return ORIGINAL;
+    }
+}
@@ -0,0 +1,112 @@
+package www.sailtrack.cn.steamview.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * 游戏数据
+ * <p>从 Steam API 解析、合并、过滤到缓存全程使用的不可变记录，时长使用基本类型，
+ * App ID 和名称使用驻留字符串，减少每个游戏的堆开销。</p>
+ *
+ * @param appId           游戏 App ID
+ * @param name            游戏名称（解析本地化名称后为本地化名称）
+ * @param originalName    Steam 返回的原始名称，与 {@code name} 相同时为 null，用于按英文名搜索本地化的游戏
+ * @param totalTime       总游戏时长（分钟）
+ * @param twoWeekTime     两周游戏时长（分钟）
+ * @param rtimeLastPlayed 最后游玩时间（epoch 秒），从未游玩为 0
+ * @param totalPercent    总时长占比
+ * @param twoWeekPercent  两周时长占比
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Game(
+    String appId,
+    String name,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String originalName,
+    long totalTime,
+    long twoWeekTime,
+    long rtimeLastPlayed,
+    double totalPercent,
+    double twoWeekPercent
+) {
+
+    private static final String COVER_URL_FORMAT = "/steamview/covers/%s";
+    private static final String NEVER_PLAYED = "从未游玩";
+
+    public Game {
+        appId = appId == null ? null : appId.intern();
+        name = name == null ? null : name.intern();
+        originalName = originalName == null || originalName.equals(name) ? null : originalName.intern();
+    }
+
+    /**
+     * 创建尚未计算占比的游戏数据
+     *
+     * @param appId           游戏 App ID
+     * @param name            游戏名称
+     * @param totalTime       总游戏时长（分钟）
+     * @param twoWeekTime     两周游戏时长（分钟）
+     * @param rtimeLastPlayed 最后游玩时间（epoch 秒）
+     * @return 游戏数据
+     */
+    public static Game of(String appId, String name, long totalTime, long twoWeekTime, long rtimeLastPlayed) {
+        return new Game(appId, name, null, totalTime, twoWeekTime, rtimeLastPlayed, 0, 0);
+    }
+
+    /**
+     * 获取封面 URL，指向本地封面缓存，可追加 {@code ?variant=medium} 获取缩略图
+     *
+     * @param appId 游戏 App ID
+     * @return 封面 URL
+     */
+    public static String coverUrlOf(String appId) {
+        return String.format(COVER_URL_FORMAT, appId);
+    }
+
+    /**
+     * 替换为本地化名称，保留原始名称
+     *
+     * @param localizedName 本地化名称
+     * @return 替换名称后的游戏
+     */
+    public Game withLocalizedName(String localizedName) {
+        return new Game(appId, localizedName, originalName == null ? name : originalName, totalTime, twoWeekTime,
+            rtimeLastPlayed, totalPercent, twoWeekPercent);
+    }
+
+    public Game withPlaytime(long totalTime, long twoWeekTime, long rtimeLastPlayed) {
+        return new Game(appId, name, originalName, totalTime, twoWeekTime, rtimeLastPlayed, totalPercent,
+            twoWeekPercent);
+    }
+
+    public Game withPercents(double totalPercent, double twoWeekPercent) {
+        return new Game(appId, name, originalName, totalTime, twoWeekTime, rtimeLastPlayed, totalPercent,
+            twoWeekPercent);
+    }
+
+    @JsonProperty("coverUrl")
+    public String coverUrl() {
+        return coverUrlOf(appId);
+    }
+
+    /**
+     * 格式化的最后游玩日期
+     *
+     * @return 日期字符串，从未游玩时为“从未游玩”
+     */
+    @JsonProperty("lastPlayed")
+    public String lastPlayed() {
+        if (rtimeLastPlayed <= 0) {
+            return NEVER_PLAYED;
+        }
+        return Instant.ofEpochSecond(rtimeLastPlayed)
+            .atZone(ZoneId.systemDefault())
+            .toLocalDate()
+            .toString();
+    }
+}
@@ -0,0 +1,58 @@
+package www.sailtrack.cn.steamview.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 增量同步接口响应
+ * <p>{@code resync} 为 true 时 {@code games} 为完整游戏列表，客户端应丢弃本地副本；
+ * 否则 {@code changed} 为新增或修改的游戏，{@code removed} 为删除的 App ID。
+ * 时长占比随总时长整体变化，客户端可根据 {@code stats} 重新计算。</p>
+ *
+ * @param version     当前快照版本，客户端下次请求时作为 {@code since}
+ * @param resync      是否需要完整同步
+ * @param games       完整游戏列表，仅完整同步时返回
+ * @param changed     新增或修改的游戏，仅增量同步时返回
+ * @param removed     删除的 App ID，仅增量同步时返回
+ * @param stats       统计数据
+ * @param lastUpdated 上次更新时间
+ * @param stale       数据是否已过期（过期数据会在后台刷新）
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameChangesResponse(
+    long version,
+    boolean resync,
+    List<Game> games,
+    List<Game> changed,
+    List<String> removed,
+    GameStats stats,
+    Instant lastUpdated,
+    boolean stale
+) {
+
+    public static GameChangesResponse resync(GameLibrary library, boolean stale) {
+        return new GameChangesResponse(library.version(), true, library.games(), null, null,
+            library.stats(), library.lastUpdated(), stale);
+    }
+
+    public static GameChangesResponse delta(GameLibrary library, boolean stale, Set<String> changedAppIds) {
+        List<Game> changed = new ArrayList<>();
+        Set<String> removed = new HashSet<>(changedAppIds);
+        if (!changedAppIds.isEmpty()) {
+            for (Game game : library.games()) {
+                if (removed.remove(game.appId())) {
+                    changed.add(game);
+                }
+            }
+        }
+        return new GameChangesResponse(library.version(), false, null, changed, List.copyOf(removed),
+            library.stats(), library.lastUpdated(), stale);
+    }
+}
@@ -0,0 +1,167 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 游戏库的预排序索引
+ * <p>在快照生成时为每种排序方式构建一次下标数组，分页请求只需按下标取出当前页，
+ * 无需复制和重新排序整个游戏列表。关键词过滤使用同时构建的 {@link GameSearchIndex}，
+ * 再按各游戏在排序中的位置对匹配结果排序分页，耗时只与匹配数量有关。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public final class GameIndex {
+
+    private final List<Game> games;
+    private final Map<GameSort, int[]> orders;
+
+    /**
+     * 各排序方式下每个游戏所在的位置，与 {@link #orders} 互为逆映射
+     */
+    private final Map<GameSort, int[]> positions;
+    private final GameSearchIndex search;
+    private final Set<String> appIds;
+
+    private GameIndex(List<Game> games, Map<GameSort, int[]> orders, Map<GameSort, int[]> positions,
+                      GameSearchIndex search, Set<String> appIds) {
+        this.games = games;
+        this.orders = orders;
+        this.positions = positions;
+        this.search = search;
+        this.appIds = appIds;
+    }
+
+    /**
+     * 为游戏列表构建索引
+     *
+     * @param games 游戏列表（只读）
+     * @return 索引
+     */
+    public static GameIndex build(List<Game> games) {
+        Collator collator = Collator.getInstance(Locale.CHINA);
+        Map<GameSort, int[]> orders = new EnumMap<>(GameSort.class);
+        orders.put(GameSort.TWO_WEEK_TIME, sortedIndexes(games,
+            Comparator.comparingLong(Game::twoWeekTime).reversed()
+                .thenComparing(Comparator.comparingLong(Game::totalTime).reversed())));
+        orders.put(GameSort.TOTAL_TIME, sortedIndexes(games,
+            Comparator.comparingLong(Game::totalTime).reversed()));
+        orders.put(GameSort.NAME, sortedIndexes(games,
+            Comparator.comparing(Game::name, Comparator.nullsLast(collator))));
+        orders.put(GameSort.LAST_PLAYED, sortedIndexes(games,
+            Comparator.comparingLong(Game::rtimeLastPlayed).reversed()));
+
+        Map<GameSort, int[]> positions = new EnumMap<>(GameSort.class);
+        orders.forEach((sort, order) -> {
+            int[] position = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                position[order[i]] = i;
+            }
+            positions.put(sort, position);
+        });
+
+        Set<String> appIds = new HashSet<>(games.size() * 4 / 3 + 1);
+        for (Game game : games) {
+            appIds.add(game.appId());
+        }
+        return new GameIndex(games, orders, positions, GameSearchIndex.build(games), appIds);
+    }
+
+    /**
+     * 检查游戏是否在游戏库中
+     *
+     * @param appId 游戏 App ID
+     * @return 是否存在
+     */
+    public boolean contains(String appId) {
+        return appIds.contains(appId);
+    }
+
+    /**
+     * 获取名称搜索索引
+     *
+     * @return 搜索索引
+     */
+    public GameSearchIndex search() {
+        return search;
+    }
+
+    private static int[] sortedIndexes(List<Game> games, Comparator<Game> comparator) {
+        Integer[] indexes = new Integer[games.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        // 相同排序值时按 App ID 排序，保证分页结果稳定
+        Arrays.sort(indexes, Comparator.<Integer, Game>comparing(games::get, comparator)
+            .thenComparing(i -> games.get(i).appId()));
+        return Arrays.stream(indexes).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 查询一页游戏
+     *
+     * @param sort      排序方式
+     * @param reversed  是否与默认方向相反（名称默认升序，其余默认降序）
+     * @param keyword   名称关键词，支持原始名称和拼音，为空时不过滤
+     * @param page      页码，从 1 开始
+     * @param size      每页数量
+     * @return 当前页游戏及匹配总数
+     */
+    public Page query(GameSort sort, boolean reversed, String keyword, int page, int size) {
+        int[] order = orders.get(sort);
+        // 页码来自匿名请求，用 long 计算偏移量避免溢出为负数
+        long offset = (Math.max(page, 1) - 1L) * size;
+        List<Game> items = new ArrayList<>(Math.min(size, games.size()));
+
+        if (keyword == null || keyword.isBlank()) {
+            if (offset >= order.length) {
+                return new Page(items, order.length);
+            }
+            for (int i = (int) offset; i < order.length && items.size() < size; i++) {
+                items.add(games.get(order[at(order, i, reversed)]));
+            }
+            return new Page(items, order.length);
+        }
+
+        // 只对匹配的游戏按排序位置排序，不扫描整个排序数组
+        BitSet matches = search.matching(keyword);
+        int total = matches.cardinality();
+        if (offset >= total) {
+            return new Page(items, total);
+        }
+        int[] position = positions.get(sort);
+        int[] matched = new int[total];
+        int count = 0;
+        for (int index = matches.nextSetBit(0); index >= 0; index = matches.nextSetBit(index + 1)) {
+            matched[count++] = position[index];
+        }
+        Arrays.sort(matched);
+        for (int i = (int) offset; i < total && items.size() < size; i++) {
+            items.add(games.get(order[matched[at(matched, i, reversed)]]));
+        }
+        return new Page(items, total);
+    }
+
+    private static int at(int[] order, int i, boolean reversed) {
+        return reversed ? order.length - 1 - i : i;
+    }
+
+    /**
+     * 分页结果
+     *
+     * @param items 当前页游戏
+     * @param total 匹配总数
+     */
+    public record Page(List<Game> items, int total) {
+    }
+}
@@ -0,0 +1,104 @@
+package www.sailtrack.cn.steamview.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游戏库快照
+ *
+ * @param games           游戏列表（只读）
+ * @param stats           统计数据
+ * @param lastUpdated     上次更新时间（包括增量刷新）
+ * @param lastFullRefresh 上次完整刷新（重新获取整个游戏库）的时间
+ * @param version         快照版本，每次保存递增，未保存时为 0
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GameLibrary(List<Game> games, GameStats stats, Instant lastUpdated, Instant lastFullRefresh,
+                          long version) {
+
+    public GameLibrary {
+        games = games == null ? List.of() : List.copyOf(games);
+    }
+
+    /**
+     * 由完整刷新得到的游戏列表构建快照
+     *
+     * @param games       游戏列表
+     * @param lastUpdated 更新时间
+     * @return 游戏库快照
+     */
+    public static GameLibrary of(List<Game> games, Instant lastUpdated) {
+        return of(games, lastUpdated, lastUpdated);
+    }
+
+    /**
+     * 由游戏列表构建快照，计算统计数据和每个游戏的时长占比
+     *
+     * @param games           游戏列表
+     * @param lastUpdated     更新时间
+     * @param lastFullRefresh 上次完整刷新时间
+     * @return 游戏库快照
+     */
+    public static GameLibrary of(List<Game> games, Instant lastUpdated, Instant lastFullRefresh) {
+        long totalTime = 0;
+        long twoWeekTime = 0;
+        int twoWeekGames = 0;
+        Game twoWeekTopGame = null;
+        for (Game game : games) {
+            totalTime += game.totalTime();
+            twoWeekTime += game.twoWeekTime();
+            if (game.twoWeekTime() > 0) {
+                twoWeekGames++;
+                if (twoWeekTopGame == null || game.twoWeekTime() > twoWeekTopGame.twoWeekTime()) {
+                    twoWeekTopGame = game;
+                }
+            }
+        }
+
+        // 计算百分比
+        List<Game> result = new ArrayList<>(games.size());
+        for (Game game : games) {
+            double totalPercent = totalTime > 0 ? (game.totalTime() * 100.0 / totalTime) : 0;
+            double twoWeekPercent = twoWeekTime > 0 ? (game.twoWeekTime() * 100.0 / twoWeekTime) : 0;
+            result.add(game.withPercents(totalPercent, twoWeekPercent));
+        }
+
+        GameStats stats = new GameStats(result.size(), totalTime, twoWeekTime, twoWeekGames,
+            twoWeekTopGame == null ? null : twoWeekTopGame.name());
+        return new GameLibrary(result, stats, lastUpdated, lastFullRefresh, 0);
+    }
+
+    public GameLibrary withVersion(long version) {
+        return new GameLibrary(games, stats, lastUpdated, lastFullRefresh, version);
+    }
+
+    /**
+     * 检查距上次完整刷新是否超过刷新频率
+     *
+     * @param refreshInterval 刷新频率（小时）
+     * @return 是否过期
+     */
+    public boolean isExpired(int refreshInterval) {
+        return isOlderThan(lastFullRefresh, Duration.ofHours(refreshInterval));
+    }
+
+    /**
+     * 检查距上次更新（包括增量刷新）是否超过指定时长
+     *
+     * @param interval 时长
+     * @return 是否超过
+     */
+    public boolean isUpdatedBefore(Duration interval) {
+        return isOlderThan(lastUpdated, interval);
+    }
+
+    private static boolean isOlderThan(Instant time, Duration interval) {
+        return time == null || Duration.between(time, Instant.now()).compareTo(interval) >= 0;
+    }
+}
@@ -0,0 +1,52 @@
+package www.sailtrack.cn.steamview.model;
+
+/**
+ * 游戏分页查询参数
+ *
+ * @param page     页码，从 1 开始
+ * @param size     每页数量
+ * @param sort     排序方式
+ * @param reversed 是否与默认排序方向相反
+ * @param keyword  名称关键词，可为空
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record GameQuery(int page, int size, GameSort sort, boolean reversed, String keyword) {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * 解析查询参数
+     *
+     * @param page    页码
+     * @param size    每页数量
+     * @param sort    排序方式：twoWeekTime、totalTime、name、lastPlayed
+     * @param order   排序方向：asc 或 desc，默认名称升序、其余降序
+     * @param keyword 名称关键词
+     * @return 查询参数，未指定任何分页参数时为 null（返回全部游戏）
+     */
+    public static GameQuery from(Integer page, Integer size, String sort, String order, String keyword) {
+        if (size == null && page == null && sort == null && order == null && keyword == null) {
+            return null;
+        }
+
+        int pageSize = Math.min(Math.max(size == null ? DEFAULT_PAGE_SIZE : size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page == null ? 1 : page, 1);
+        GameSort gameSort = GameSort.from(sort);
+        boolean defaultAscending = gameSort == GameSort.NAME;
+        boolean reversed = order != null && "asc".equalsIgnoreCase(order) != defaultAscending;
+        String normalizedKeyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        return new GameQuery(pageNumber, pageSize, gameSort, reversed, normalizedKeyword);
+    }
+
+    /**
+     * 在索引上执行查询
+     *
+     * @param index 预排序索引
+     * @return 分页结果
+     */
+    public GameIndex.Page execute(GameIndex index) {
+        return index.query(sort, reversed, keyword, page, size);
+    }
+}
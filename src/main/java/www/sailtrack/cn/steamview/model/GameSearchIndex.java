@@ -0,0 +1,370 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 游戏名称搜索索引
+ * <p>在快照生成时为每个游戏建立检索键：名称、Steam 原始名称，以及含汉字名称的全拼和拼音首字母。
+ * 检索键统一为小写、去除空白和标点的紧凑形式，按相邻两个字符（中日韩字符额外按单字）建立倒排表。
+ * 查询时对查询串的各个 n-gram 求倒排表交集得到候选，再校验是否包含查询串并按匹配位置打分，
+ * 无需扫描整个游戏库。</p>
+ * <p>单个非中日韩字符的查询没有可用的 n-gram，退化为顺序扫描。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public final class GameSearchIndex {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final int KIND_NAME = 0;
+    private static final int KIND_ORIGINAL_NAME = 1;
+    private static final int KIND_PINYIN = 2;
+    private static final int KIND_INITIALS = 3;
+
+    /**
+     * 各类检索键的扣分，名称匹配优先于拼音匹配
+     */
+    private static final int[] KIND_PENALTY = {0, 2, 5, 8};
+
+    private static final int SCORE_EXACT = 100;
+    private static final int SCORE_PREFIX = 80;
+    private static final int SCORE_WORD_PREFIX = 60;
+    private static final int SCORE_CONTAINS = 40;
+
+    private static final int[] NO_DOCS = new int[0];
+
+    private final List<Game> games;
+    private final Key[][] keys;
+    private final Map<Integer, int[]> postings;
+
+    private GameSearchIndex(List<Game> games, Key[][] keys, Map<Integer, int[]> postings) {
+        this.games = games;
+        this.keys = keys;
+        this.postings = postings;
+    }
+
+    /**
+     * 为游戏列表构建搜索索引
+     *
+     * @param games 游戏列表（只读）
+     * @return 搜索索引
+     */
+    public static GameSearchIndex build(List<Game> games) {
+        Key[][] keys = new Key[games.size()][];
+        Map<Integer, Postings> grams = new HashMap<>();
+        List<Key> gameKeys = new ArrayList<>(4);
+        for (int doc = 0; doc < games.size(); doc++) {
+            Game game = games.get(doc);
+            gameKeys.clear();
+            addKeys(gameKeys, game.name(), KIND_NAME);
+            addKeys(gameKeys, game.originalName(), KIND_ORIGINAL_NAME);
+            keys[doc] = gameKeys.toArray(Key[]::new);
+            for (Key key : keys[doc]) {
+                String text = key.text();
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (isCjk(c)) {
+                        grams.computeIfAbsent(unigram(c), gram -> new Postings()).add(doc);
+                    }
+                    if (i + 1 < text.length()) {
+                        grams.computeIfAbsent(bigram(c, text.charAt(i + 1)), gram -> new Postings()).add(doc);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, int[]> postings = new HashMap<>(grams.size() * 4 / 3 + 1);
+        grams.forEach((gram, list) -> postings.put(gram, list.toArray()));
+        return new GameSearchIndex(games, keys, postings);
+    }
+
+    /**
+     * 搜索游戏，按匹配程度排序：完全匹配、前缀、词首、包含，同分时总时长长的在前
+     *
+     * @param query 查询串
+     * @param limit 返回数量，范围 1 到 {@link #MAX_LIMIT}
+     * @return 搜索结果
+     */
+    public Result search(String query, int limit) {
+        limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Key needle = Key.of(query, KIND_NAME);
+        if (needle.text().isEmpty()) {
+            return new Result(0, List.of());
+        }
+        String text = needle.text();
+        int[] candidates = candidates(text);
+
+        // 容量为 limit 的最小堆，堆顶为当前最差的结果
+        Comparator<Hit> order = Comparator.comparingInt(Hit::score)
+            .thenComparingLong(hit -> hit.game().totalTime())
+            .thenComparing(hit -> hit.game().appId(), Comparator.reverseOrder());
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, order);
+        int total = 0;
+        int count = candidates == null ? games.size() : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int doc = candidates == null ? i : candidates[i];
+            int score = score(doc, text);
+            if (score <= 0) {
+                continue;
+            }
+            total++;
+            Hit hit = new Hit(games.get(doc), score);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (order.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(order.reversed());
+        return new Result(total, hits.stream().map(Hit::game).toList());
+    }
+
+    /**
+     * 获取匹配查询串的游戏下标
+     *
+     * @param query 查询串
+     * @return 匹配的下标集合，下标与构建索引时的游戏列表一致
+     */
+    public BitSet matching(String query) {
+        String text = Key.of(query, KIND_NAME).text();
+        BitSet matched = new BitSet(games.size());
+        if (text.isEmpty()) {
+            return matched;
+        }
+        int[] candidates = candidates(text);
+        int count = candidates == null ? games.size() : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int doc = candidates == null ? i : candidates[i];
+            if (score(doc, text) > 0) {
+                matched.set(doc);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 求查询串各 n-gram 倒排表的交集
+     *
+     * @param text 紧凑形式的查询串
+     * @return 候选下标（升序），需要顺序扫描时为 null
+     */
+    private int[] candidates(String text) {
+        if (text.length() == 1) {
+            char c = text.charAt(0);
+            return isCjk(c) ? postings.getOrDefault(unigram(c), NO_DOCS) : null;
+        }
+        int[][] lists = new int[text.length() - 1][];
+        for (int i = 0; i + 1 < text.length(); i++) {
+            int[] list = postings.get(bigram(text.charAt(i), text.charAt(i + 1)));
+            if (list == null) {
+                return NO_DOCS;
+            }
+            lists[i] = list;
+        }
+        // 从最短的倒排表开始求交集
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            if (lists[i] != lists[i - 1]) {
+                result = intersect(result, lists[i]);
+            }
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 计算游戏与查询串的匹配分数，取各检索键的最高分
+     *
+     * @return 分数，不匹配时为 0
+     */
+    private int score(int doc, String text) {
+        int best = 0;
+        for (Key key : keys[doc]) {
+            int position = key.text().indexOf(text);
+            if (position < 0) {
+                continue;
+            }
+            int score;
+            if (position == 0) {
+                score = key.text().length() == text.length() ? SCORE_EXACT : SCORE_PREFIX;
+            } else {
+                // 后面的出现位置可能在词首
+                while (position >= 0 && !key.wordStarts().get(position)) {
+                    position = key.text().indexOf(text, position + 1);
+                }
+                score = position >= 0 ? SCORE_WORD_PREFIX : SCORE_CONTAINS;
+            }
+            best = Math.max(best, score - KIND_PENALTY[key.kind()]);
+        }
+        return best;
+    }
+
+    /**
+     * 添加名称的检索键，含汉字时同时添加全拼和拼音首字母
+     */
+    private static void addKeys(List<Key> keys, String name, int kind) {
+        Key key = Key.of(name, kind);
+        if (key.text().isEmpty()) {
+            return;
+        }
+        keys.add(key);
+
+        String text = key.text();
+        StringBuilder full = null;
+        StringBuilder initials = null;
+        BitSet fullStarts = null;
+        BitSet initialStarts = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String syllable = Pinyin.of(c);
+            if (syllable != null && full == null) {
+                // 遇到第一个汉字时补上之前的字符
+                full = new StringBuilder(text.length() * 4).append(text, 0, i);
+                initials = new StringBuilder(text.length()).append(text, 0, i);
+                fullStarts = key.wordStarts().get(0, i);
+                initialStarts = key.wordStarts().get(0, i);
+            }
+            if (full == null) {
+                continue;
+            }
+            if (syllable != null) {
+                fullStarts.set(full.length());
+                full.append(syllable);
+                initialStarts.set(initials.length());
+                initials.append(syllable.charAt(0));
+            } else {
+                if (key.wordStarts().get(i)) {
+                    fullStarts.set(full.length());
+                    initialStarts.set(initials.length());
+                }
+                full.append(c);
+                initials.append(c);
+            }
+        }
+        if (full != null) {
+            keys.add(new Key(full.toString(), fullStarts, KIND_PINYIN));
+            keys.add(new Key(initials.toString(), initialStarts, KIND_INITIALS));
+        }
+    }
+
+    private static int unigram(char c) {
+        return c;
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 搜索结果
+     *
+     * @param total 匹配总数
+     * @param games 排名靠前的游戏
+     */
+    public record Result(int total, List<Game> games) {
+    }
+
+    private record Hit(Game game, int score) {
+    }
+
+    /**
+     * 检索键
+     *
+     * @param text       紧凑形式的文本：小写，去除空白和标点
+     * @param wordStarts 各个词在紧凑文本中的起始位置，中日韩字符每个字都是一个词
+     * @param kind       检索键类型
+     */
+    private record Key(String text, BitSet wordStarts, int kind) {
+
+        static Key of(String value, int kind) {
+            BitSet wordStarts = new BitSet();
+            if (value == null || value.isEmpty()) {
+                return new Key("", wordStarts, kind);
+            }
+            String normalized = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+            StringBuilder text = new StringBuilder(normalized.length());
+            boolean separated = true;
+            for (int i = 0; i < normalized.length(); i++) {
+                char c = normalized.charAt(i);
+                if (!Character.isLetterOrDigit(c)) {
+                    separated = true;
+                    continue;
+                }
+                if (c >= '\u00C0' && c < '\u0250') {
+                    // 去除拉丁字母的变音符号，如 é -> e
+                    c = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+                }
+                if (separated || isCjk(c)) {
+                    wordStarts.set(text.length());
+                }
+                text.append(c);
+                separated = isCjk(c);
+            }
+            return new Key(text.toString(), wordStarts, kind);
+        }
+    }
+
+    /**
+     * 构建期间的倒排表，按下标递增追加
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.util.List;
+
+/**
+ * 游戏搜索接口响应
+ *
+ * @param query   查询串
+ * @param total   匹配的游戏总数
+ * @param games   按匹配程度排序的游戏
+ * @param stale   数据是否已过期（过期数据会在后台刷新）
+ * @param version 快照版本
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record GameSearchResponse(String query, int total, List<Game> games, boolean stale, long version) {
+
+    public static GameSearchResponse of(GameSnapshot snapshot, boolean stale, String query, int limit) {
+        GameSearchIndex.Result result = snapshot.index().search().search(query, limit);
+        return new GameSearchResponse(query, result.total(), result.games(), stale, snapshot.library().version());
+    }
+}
@@ -0,0 +1,17 @@
+package www.sailtrack.cn.steamview.model;
+
+/**
+ * 内存中的游戏库快照及其索引
+ *
+ * @param library 游戏库
+ * @param index   预排序索引
+ * @param version 快照版本（缓存资源版本），尚未持久化时为 null
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record GameSnapshot(GameLibrary library, GameIndex index, Long version) {
+
+    public static GameSnapshot of(GameLibrary library, Long version) {
+        return new GameSnapshot(library, GameIndex.build(library.games()), version);
+    }
+}
@@ -0,0 +1,55 @@
+package www.sailtrack.cn.steamview.model;
+
+/**
+ * 游戏排序方式
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public enum GameSort {
+
+    /**
+     * 两周时长，默认降序
+     */
+    TWO_WEEK_TIME("twoWeekTime"),
+
+    /**
+     * 总时长，默认降序
+     */
+    TOTAL_TIME("totalTime"),
+
+    /**
+     * 游戏名称，默认升序
+     */
+    NAME("name"),
+
+    /**
+     * 最近游玩，默认降序
+     */
+    LAST_PLAYED("lastPlayed");
+
+    private final String value;
+
+    GameSort(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 解析排序方式，无法识别时使用两周时长
+     *
+     * @param value 排序参数
+     * @return 排序方式
+     */
+    public static GameSort from(String value) {
+        for (GameSort sort : values()) {
+            if (sort.value.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return TWO_WEEK_TIME;
+    }
+}
@@ -0,0 +1,15 @@
+package www.sailtrack.cn.steamview.model;
+
+/**
+ * 游戏库统计
+ *
+ * @param totalGames      游戏总数
+ * @param totalTime       总游戏时长（分钟）
+ * @param twoWeekTime     两周游戏时长（分钟）
+ * @param twoWeekGames    两周内游玩过的游戏数
+ * @param twoWeekTopGame  两周时长最长的游戏名称，没有时为 null
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record GameStats(int totalGames, long totalTime, long twoWeekTime, int twoWeekGames, String twoWeekTopGame) {
+}
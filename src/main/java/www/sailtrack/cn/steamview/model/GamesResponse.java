@@ -0,0 +1,43 @@
+package www.sailtrack.cn.steamview.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 游戏数据接口响应
+ *
+ * @param games       游戏列表（分页请求时为当前页）
+ * @param stats       统计数据
+ * @param lastUpdated 上次更新时间
+ * @param stale       数据是否已过期（过期数据会在后台刷新）
+ * @param version     快照版本，可作为增量同步接口的 {@code since}
+ * @param total       匹配的游戏总数，仅分页请求返回
+ * @param page        当前页码，仅分页请求返回
+ * @param size        每页数量，仅分页请求返回
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GamesResponse(
+    List<Game> games,
+    GameStats stats,
+    Instant lastUpdated,
+    boolean stale,
+    long version,
+    Integer total,
+    Integer page,
+    Integer size
+) {
+
+    public static GamesResponse of(GameLibrary library, boolean stale) {
+        return new GamesResponse(library.games(), library.stats(), library.lastUpdated(), stale, library.version(),
+            null, null, null);
+    }
+
+    public static GamesResponse page(GameLibrary library, boolean stale, GameIndex.Page result, int page, int size) {
+        return new GamesResponse(result.items(), library.stats(), library.lastUpdated(), stale, library.version(),
+            result.total(), page, size);
+    }
+}
@@ -0,0 +1,51 @@
+package www.sailtrack.cn.steamview.model;
+
+/**
+ * 时长历史的时间粒度
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public enum HistoryResolution {
+
+    /**
+     * 原始数据点，每次刷新时长有变化即记录一个
+     */
+    RAW("raw"),
+
+    /**
+     * 按天汇总，每天保留最后一个数据点
+     */
+    DAY("day");
+
+    /**
+     * 未指定粒度时，超过该天数的查询按天汇总
+     */
+    private static final int AUTO_RAW_MAX_DAYS = 31;
+
+    private final String value;
+
+    HistoryResolution(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 解析时间粒度，未指定或无法识别时按查询天数选择
+     *
+     * @param value 粒度参数
+     * @param days  查询天数
+     * @return 时间粒度
+     */
+    public static HistoryResolution from(String value, long days) {
+        for (HistoryResolution resolution : values()) {
+            if (resolution.value.equalsIgnoreCase(value)) {
+                return resolution;
+            }
+        }
+        return days > AUTO_RAW_MAX_DAYS ? DAY : RAW;
+    }
+}
@@ -0,0 +1,58 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游戏库统计接口响应
+ *
+ * @param version          快照版本
+ * @param lastUpdated      上次更新时间
+ * @param totalGames       游戏总数
+ * @param playedGames      有游戏时长的游戏数
+ * @param neverPlayedGames 没有游戏时长的游戏数
+ * @param totalTime        总游戏时长（分钟）
+ * @param averageTime      有游戏时长的游戏的平均时长（分钟）
+ * @param twoWeekTime      两周游戏时长（分钟）
+ * @param twoWeekGames     两周内游玩过的游戏数
+ * @param top              各指标的排行，键为 totalTime、twoWeekTime、lastPlayed
+ * @param playtime         按总时长分桶的游戏数
+ * @param recency          按最后游玩时间分桶的游戏数
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record LibraryStats(
+    long version,
+    Instant lastUpdated,
+    int totalGames,
+    int playedGames,
+    int neverPlayedGames,
+    long totalTime,
+    long averageTime,
+    long twoWeekTime,
+    int twoWeekGames,
+    Map<String, List<RankedGame>> top,
+    List<Bucket> playtime,
+    List<Bucket> recency
+) {
+
+    /**
+     * 排行中的游戏
+     *
+     * @param appId 游戏 App ID
+     * @param name  游戏名称
+     * @param value 排行指标的值（时长为分钟，最后游玩为 epoch 秒）
+     */
+    public record RankedGame(String appId, String name, long value) {
+    }
+
+    /**
+     * 分桶
+     *
+     * @param label 名称
+     * @param count 游戏数
+     */
+    public record Bucket(String label, int count) {
+    }
+}
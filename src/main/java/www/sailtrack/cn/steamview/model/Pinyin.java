@@ -0,0 +1,59 @@
+package www.sailtrack.cn.steamview.model;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 汉字转拼音
+ * <p>多音字取第一个读音，结果按字符缓存，构建索引时同一个字只查询一次字典。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class Pinyin {
+
+    /**
+     * 没有读音的字符在缓存中的占位值
+     */
+    private static final String NONE = "";
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    private static final Map<Character, String> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private Pinyin() {
+    }
+
+    /**
+     * 获取汉字的拼音
+     *
+     * @param c 字符
+     * @return 不带声调的小写拼音，不是汉字或没有读音时为 null
+     */
+    static String of(char c) {
+        String syllable = CACHE.computeIfAbsent(c, Pinyin::lookup);
+        return syllable.isEmpty() ? null : syllable;
+    }
+
+    private static String lookup(char c) {
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            return readings == null || readings.length == 0 ? NONE : readings[0];
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 游戏时长历史
+ *
+ * @param appId      游戏 App ID
+ * @param resolution 时间粒度
+ * @param from       起始日期（含）
+ * @param to         结束日期（含）
+ * @param points     按时间排序的数据点，只包含时长发生变化的时刻
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record PlaytimeHistory(
+    String appId,
+    String resolution,
+    LocalDate from,
+    LocalDate to,
+    List<Point> points
+) {
+
+    /**
+     * 数据点
+     *
+     * @param time        记录时间
+     * @param totalTime   总游戏时长（分钟）
+     * @param twoWeekTime 两周游戏时长（分钟）
+     */
+    public record Point(Instant time, long totalTime, long twoWeekTime) {
+    }
+}
@@ -0,0 +1,103 @@
+package www.sailtrack.cn.steamview.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * 刷新进度事件，通过 Server-Sent Events 推送
+ *
+ * @param type      事件类型，作为 SSE 的 event 字段
+ * @param accountId 账号标识
+ * @param phase     刷新阶段，与刷新阶段指标的 phase 标签一致，仅阶段和进度事件返回
+ * @param completed 已完成数量，仅进度事件返回
+ * @param total     总数量，仅进度事件返回
+ * @param version   快照版本，仅快照更新事件返回
+ * @param error     错误代码（如 rate-limited、timeout），仅刷新失败事件返回，不包含异常消息
+ * @param time      事件时间
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RefreshProgress(
+    @JsonIgnore Type type,
+    String accountId,
+    String phase,
+    Integer completed,
+    Integer total,
+    Long version,
+    String error,
+    Instant time
+) {
+
+    public static RefreshProgress started(String accountId) {
+        return new RefreshProgress(Type.STARTED, accountId, null, null, null, null, null, Instant.now());
+    }
+
+    public static RefreshProgress phase(String accountId, String phase) {
+        return new RefreshProgress(Type.PHASE, accountId, phase, null, null, null, null, Instant.now());
+    }
+
+    public static RefreshProgress progress(String accountId, String phase, int completed, int total) {
+        return new RefreshProgress(Type.PROGRESS, accountId, phase, completed, total, null, null, Instant.now());
+    }
+
+    public static RefreshProgress completed(String accountId) {
+        return new RefreshProgress(Type.COMPLETED, accountId, null, null, null, null, null, Instant.now());
+    }
+
+    public static RefreshProgress failed(String accountId, String error) {
+        return new RefreshProgress(Type.FAILED, accountId, null, null, null, null, error, Instant.now());
+    }
+
+    public static RefreshProgress snapshotUpdated(String accountId, long version) {
+        return new RefreshProgress(Type.SNAPSHOT_UPDATED, accountId, null, null, null, version, null, Instant.now());
+    }
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+
+        /**
+         * 开始刷新
+         */
+        STARTED("refresh-started"),
+
+        /**
+         * 进入刷新阶段
+         */
+        PHASE("refresh-phase"),
+
+        /**
+         * 阶段进度，如已解析的本地化名称数量
+         */
+        PROGRESS("refresh-progress"),
+
+        /**
+         * 刷新完成
+         */
+        COMPLETED("refresh-completed"),
+
+        /**
+         * 刷新失败
+         */
+        FAILED("refresh-failed"),
+
+        /**
+         * 新快照已提交
+         */
+        SNAPSHOT_UPDATED("snapshot-updated");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
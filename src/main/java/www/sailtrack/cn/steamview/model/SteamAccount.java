@@ -0,0 +1,48 @@
+package www.sailtrack.cn.steamview.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.regex.Pattern;
+
+/**
+ * Steam 账号
+ * <p>每个账号拥有独立的缓存快照、索引和刷新计划；基本设置中的账号为默认账号，
+ * 沿用原有的缓存资源名称。</p>
+ *
+ * @param id          账号标识，用于请求参数和缓存资源名称
+ * @param name        显示名称，未配置时为账号标识
+ * @param steamApiKey Steam API Key，未配置时为空字符串
+ * @param steamId     Steam ID，未配置时为空字符串
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record SteamAccount(String id, String name, @JsonIgnore String steamApiKey, String steamId) {
+
+    public static final String DEFAULT_ID = "default";
+
+    /**
+     * 账号标识只能包含小写字母、数字和连字符，以便用作扩展资源名称
+     */
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9]([a-z0-9-]{0,30}[a-z0-9])?");
+
+    public SteamAccount {
+        id = id == null ? "" : id.trim();
+        name = name == null || name.isBlank() ? id : name.trim();
+        steamApiKey = steamApiKey == null ? "" : steamApiKey.trim();
+        steamId = steamId == null ? "" : steamId.trim();
+    }
+
+    public static boolean isValidId(String id) {
+        return id != null && ID_PATTERN.matcher(id).matches();
+    }
+
+    @JsonIgnore
+    public boolean isDefault() {
+        return DEFAULT_ID.equals(id);
+    }
+
+    @JsonIgnore
+    public boolean isConfigured() {
+        return !steamApiKey.isEmpty() && !steamId.isEmpty();
+    }
+}
@@ -0,0 +1,72 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 插件配置快照
+ *
+ * @param steamApiKey        默认账号的 Steam API Key，未配置时为空字符串
+ * @param steamId            默认账号的 Steam ID，未配置时为空字符串
+ * @param refreshInterval    数据刷新频率（小时）
+ * @param hiddenGames        隐藏的游戏 App ID，对所有账号生效
+ * @param additionalAccounts 默认账号以外的账号
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public record SteamViewConfig(String steamApiKey, String steamId, int refreshInterval, Set<String> hiddenGames,
+                              List<SteamAccount> additionalAccounts) {
+
+    public SteamViewConfig {
+        steamApiKey = steamApiKey == null ? "" : steamApiKey.trim();
+        steamId = steamId == null ? "" : steamId.trim();
+        hiddenGames = hiddenGames == null ? Set.of() : Set.copyOf(hiddenGames);
+        additionalAccounts = additionalAccounts == null ? List.of() : List.copyOf(additionalAccounts);
+    }
+
+    public SteamViewConfig(String steamApiKey, String steamId, int refreshInterval, Set<String> hiddenGames) {
+        this(steamApiKey, steamId, refreshInterval, hiddenGames, List.of());
+    }
+
+    public boolean isHidden(String appId) {
+        return hiddenGames.contains(appId);
+    }
+
+    /**
+     * 获取默认账号
+     *
+     * @return 默认账号
+     */
+    public SteamAccount defaultAccount() {
+        return new SteamAccount(SteamAccount.DEFAULT_ID, null, steamApiKey, steamId);
+    }
+
+    /**
+     * 获取所有账号，默认账号在前
+     *
+     * @return 账号列表
+     */
+    public List<SteamAccount> accounts() {
+        List<SteamAccount> accounts = new ArrayList<>(additionalAccounts.size() + 1);
+        accounts.add(defaultAccount());
+        accounts.addAll(additionalAccounts);
+        return accounts;
+    }
+
+    /**
+     * 查找账号
+     *
+     * @param id 账号标识，为空时返回默认账号
+     * @return 账号，不存在时为空
+     */
+    public Optional<SteamAccount> account(String id) {
+        if (id == null || id.isBlank() || SteamAccount.DEFAULT_ID.equals(id)) {
+            return Optional.of(defaultAccount());
+        }
+        return additionalAccounts.stream()
+            .filter(account -> account.id().equals(id))
+            .findFirst();
+    }
+}
@@ -0,0 +1,84 @@
+package www.sailtrack.cn.steamview.model;
+
+import java.util.Locale;
+
+/**
+ * 服务端渲染游戏页面使用的展示数据
+ * <p>时长和占比在服务端格式化，格式与前端页面一致，模板只负责输出。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public final class SteamViewPage {
+
+    private static final String COVER_VARIANT = "?variant=medium";
+
+    private SteamViewPage() {
+    }
+
+    /**
+     * 格式化游戏时长
+     *
+     * @param minutes 时长（分钟）
+     * @return 如“45 分钟”“3 小时”“3 小时 20 分钟”
+     */
+    public static String formatTime(long minutes) {
+        if (minutes < 60) {
+            return minutes + " 分钟";
+        }
+        long hours = minutes / 60;
+        long mins = minutes % 60;
+        return mins == 0 ? hours + " 小时" : hours + " 小时 " + mins + " 分钟";
+    }
+
+    /**
+     * 格式化时长占比，保留一位小数
+     *
+     * @param percent 占比
+     * @return 如“12.5”
+     */
+    public static String formatPercent(double percent) {
+        return String.format(Locale.ROOT, "%.1f", percent);
+    }
+
+    /**
+     * 游戏卡片
+     *
+     * @param appId          游戏 App ID
+     * @param name           游戏名称
+     * @param coverUrl       封面缩略图 URL
+     * @param totalTime      格式化的总时长
+     * @param twoWeekTime    格式化的两周时长
+     * @param lastPlayed     最后游玩日期
+     * @param totalPercent   总时长占比，保留一位小数
+     * @param twoWeekPercent 两周时长占比，保留一位小数
+     * @param playedRecently 两周内是否游玩过
+     */
+    public record Card(String appId, String name, String coverUrl, String totalTime, String twoWeekTime,
+                       String lastPlayed, String totalPercent, String twoWeekPercent, boolean playedRecently) {
+
+        public static Card of(Game game) {
+            return new Card(game.appId(), game.name(), game.coverUrl() + COVER_VARIANT,
+                formatTime(game.totalTime()), formatTime(game.twoWeekTime()), game.lastPlayed(),
+                formatPercent(game.totalPercent()), formatPercent(game.twoWeekPercent()), game.twoWeekTime() > 0);
+        }
+    }
+
+    /**
+     * 统计卡片
+     *
+     * @param totalGames   游戏总数
+     * @param totalTime    格式化的总时长
+     * @param twoWeekTime  格式化的两周时长
+     * @param twoWeekGames 两周内游玩过的游戏数
+     */
+    public record Summary(int totalGames, String totalTime, String twoWeekTime, int twoWeekGames) {
+
+        public static final Summary EMPTY = of(new GameStats(0, 0, 0, 0, null));
+
+        public static Summary of(GameStats stats) {
+            return new Summary(stats.totalGames(), formatTime(stats.totalTime()), formatTime(stats.twoWeekTime()),
+                stats.twoWeekGames());
+        }
+    }
+}
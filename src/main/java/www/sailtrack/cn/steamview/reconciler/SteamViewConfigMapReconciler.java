@@ -0,0 +1,54 @@
+package www.sailtrack.cn.steamview.reconciler;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import www.sailtrack.cn.steamview.service.GameCacheService;
+import www.sailtrack.cn.steamview.service.SteamViewConfigService;
+
+/**
+ * 监听插件相关 ConfigMap 的变化
+ * <ul>
+ *     <li>游戏缓存资源版本变化时使内存快照失效</li>
+ *     <li>插件配置变化时使配置快照失效</li>
+ * </ul>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Component
+@AllArgsConstructor
+public class SteamViewConfigMapReconciler implements Reconciler<Reconciler.Request> {
+
+    private final ExtensionClient client;
+    private final GameCacheService gameCacheService;
+    private final SteamViewConfigService configService;
+
+    @Override
+    public Result reconcile(Request request) {
+        String name = request.name();
+        if (SteamViewConfigService.CONFIG_MAP_NAME.equals(name)) {
+            configService.invalidate();
+        } else {
+            // 只处理已加载快照的账号的缓存资源，分片和其他 ConfigMap 无需读取
+            gameCacheService.loadedAccountOf(name).ifPresent(accountId -> {
+                Long resourceVersion = client.fetch(ConfigMap.class, name)
+                    .map(configMap -> configMap.getMetadata().getVersion())
+                    .orElse(null);
+                gameCacheService.onCacheResourceChanged(accountId, resourceVersion);
+            });
+        }
+        return Result.doNotRetry();
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new ConfigMap())
+            .build();
+    }
+}
@@ -0,0 +1,171 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import www.sailtrack.cn.steamview.event.SnapshotWarmedEvent;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 启动预热
+ * <p>插件启动后在后台加载持久化的快照、构建排序和搜索索引，并发布 {@link SnapshotWarmedEvent}
+ * 供接口层预先编码完整响应，使首个请求无需等待扩展存储和序列化；快照已过期或不存在时触发后台刷新。所有账号并行预热，
+ * 单个账号失败不影响其他账号。</p>
+ * <p>预热不阻塞插件启动，预热完成前的请求照常按需加载。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class CacheWarmup {
+
+    private final SteamViewConfigService configService;
+    private final GameCacheService gameCacheService;
+    private final GameRefreshService gameRefreshService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 同时预热的账号数量
+     */
+    private static final int WARMUP_CONCURRENCY = 4;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.PENDING);
+
+    private Disposable task;
+
+    public CacheWarmup(SteamViewConfigService configService,
+                       GameCacheService gameCacheService,
+                       GameRefreshService gameRefreshService,
+                       ApplicationEventPublisher eventPublisher) {
+        this.configService = configService;
+        this.gameCacheService = gameCacheService;
+        this.gameRefreshService = gameRefreshService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 在后台开始预热，立即返回
+     */
+    public synchronized void start() {
+        if (task != null && !task.isDisposed()) {
+            return;
+        }
+        status.set(Status.WARMING);
+        long startedAt = System.nanoTime();
+        task = configService.getConfig()
+            .flatMapMany(config -> Flux.fromIterable(config.accounts())
+                .flatMapDelayError(account -> warm(account, config.refreshInterval()),
+                    WARMUP_CONCURRENCY, WARMUP_CONCURRENCY))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(
+                warmed -> log.info("账号 {} 的缓存预热完成：{} 个游戏，耗时 {} ms", warmed.accountId(),
+                    warmed.snapshot().library().games().size(),
+                    Duration.ofNanos(System.nanoTime() - startedAt).toMillis()),
+                e -> {
+                    status.set(Status.FAILED);
+                    log.warn("缓存预热失败: {}", e.getMessage());
+                },
+                () -> status.compareAndSet(Status.WARMING, Status.READY)
+            );
+    }
+
+    /**
+     * 预热单个账号
+     *
+     * @param account         账号
+     * @param refreshInterval 刷新频率（小时）
+     * @return 预热的快照，没有缓存时为空
+     */
+    private Mono<WarmedSnapshot> warm(SteamAccount account, int refreshInterval) {
+        return gameCacheService.getCachedGames(account.id())
+            .map(snapshot -> {
+                boolean stale = snapshot.library().isExpired(refreshInterval);
+                eventPublisher.publishEvent(new SnapshotWarmedEvent(this, account.id(), snapshot, stale));
+                if (stale && account.isConfigured()) {
+                    log.info("账号 {} 的缓存快照已过期，后台刷新游戏数据", account.id());
+                    gameRefreshService.refreshInBackground(account.id());
+                }
+                return new WarmedSnapshot(account.id(), snapshot);
+            })
+            .switchIfEmpty(Mono.fromRunnable(() -> {
+                if (account.isConfigured()) {
+                    log.info("账号 {} 没有缓存快照，后台获取游戏数据", account.id());
+                    gameRefreshService.refreshInBackground(account.id());
+                }
+            }));
+    }
+
+    /**
+     * 停止尚未完成的预热
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.dispose();
+            task = null;
+        }
+        status.set(Status.PENDING);
+    }
+
+    /**
+     * 获取预热状态
+     *
+     * @return 预热状态
+     */
+    public Status getStatus() {
+        return status.get();
+    }
+
+    /**
+     * 已预热的账号快照
+     *
+     * @param accountId 账号标识
+     * @param snapshot  游戏库快照
+     */
+    private record WarmedSnapshot(String accountId, GameSnapshot snapshot) {
+    }
+
+    /**
+     * 预热状态
+     */
+    public enum Status {
+
+        /**
+         * 尚未开始
+         */
+        PENDING("pending"),
+
+        /**
+         * 正在预热
+         */
+        WARMING("warming"),
+
+        /**
+         * 已完成，快照和响应已就绪
+         */
+        READY("ready"),
+
+        /**
+         * 预热失败，请求时按需加载
+         */
+        FAILED("failed");
+
+        private final String value;
+
+        Status(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
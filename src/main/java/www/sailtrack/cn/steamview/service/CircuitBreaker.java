@@ -0,0 +1,88 @@
+package www.sailtrack.cn.steamview.service;
+
+import java.time.Duration;
+
+/**
+ * 熔断器
+ * <p>连续失败达到阈值后打开，打开期间请求直接失败；冷却结束后放行一个探测请求，
+ * 探测成功则关闭，失败则重新打开。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * 判断是否允许发起请求
+     *
+     * @return 是否允许
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * 记录一次失败
+     *
+     * @return 熔断器是否因此打开
+     */
+    synchronized boolean onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            boolean opened = state != State.OPEN;
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            return opened;
+        }
+        return false;
+    }
+
+    /**
+     * 请求被取消，释放探测名额
+     */
+    synchronized void onCancel() {
+        probeInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,292 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.pf4j.PluginWrapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.plugin.PluginsRootGetter;
+import www.sailtrack.cn.steamview.model.CoverVariant;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 游戏封面缓存服务
+ * <p>每个封面只从 Steam CDN 获取一次，原图和缩略图保存在磁盘缓存目录中。
+ * 缓存总大小超过上限时按最近访问顺序淘汰（LRU）。</p>
+ * <p>缓存目录默认为 Halo 工作目录下的 {@code plugins-data/<插件名称>/covers}（与插件目录同级），
+ * 无法获取插件目录时使用 {@code ${java.io.tmpdir}/halo-plugin-steamview/covers}；
+ * 可通过系统属性 {@code steamview.cover.dir} 修改。上限默认 256 MB，可通过 {@code steamview.cover.max-bytes} 修改。</p>
+ * <p>本服务只负责缓存，调用方需确认 App ID 属于当前游戏库，避免任意 App ID 占满缓存和 CDN 限流配额。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class CoverCacheService {
+
+    private static final String DIRECTORY_PROPERTY = "steamview.cover.dir";
+    private static final String MAX_BYTES_PROPERTY = "steamview.cover.max-bytes";
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Steam 上没有封面的游戏在该时长内不再重复请求
+     */
+    private static final Duration MISSING_TTL = Duration.ofHours(24);
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final String FILE_SUFFIX = ".jpg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern APP_ID_PATTERN = Pattern.compile("\\d{1,10}");
+
+    private final SteamApiService steamApiService;
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * 正在生成的封面，按尺寸和 App ID 区分
+     */
+    private final Map<String, Mono<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Steam 上没有封面的游戏及其发现时间
+     */
+    private final Map<String, Instant> missing = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存文件及其大小，按访问顺序排列
+     */
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private boolean indexed;
+
+    public CoverCacheService(SteamApiService steamApiService, ObjectProvider<PluginsRootGetter> pluginsRootProvider,
+                             PluginWrapper pluginWrapper) {
+        this.steamApiService = steamApiService;
+        String configured = System.getProperty(DIRECTORY_PROPERTY);
+        this.directory = configured != null
+            ? Paths.get(configured)
+            : defaultDirectory(pluginsRootProvider.getIfAvailable(), pluginWrapper.getPluginId());
+        this.maxBytes = Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+        log.info("封面缓存目录: {}", directory);
+    }
+
+    private static Path defaultDirectory(PluginsRootGetter pluginsRootGetter, String pluginId) {
+        Path pluginsRoot = pluginsRootGetter == null ? null : pluginsRootGetter.get();
+        if (pluginsRoot == null || pluginsRoot.toAbsolutePath().getParent() == null) {
+            log.warn("无法获取 Halo 插件目录，封面缓存使用临时目录");
+            return Paths.get(System.getProperty("java.io.tmpdir"), "halo-plugin-steamview", "covers");
+        }
+        return pluginsRoot.toAbsolutePath().getParent().resolve("plugins-data").resolve(pluginId).resolve("covers");
+    }
+
+    /**
+     * 检查 App ID 格式，防止拼接出缓存目录以外的路径
+     *
+     * @param appId 游戏 App ID
+     * @return 是否有效
+     */
+    public static boolean isValidAppId(String appId) {
+        return appId != null && APP_ID_PATTERN.matcher(appId).matches();
+    }
+
+    /**
+     * 获取封面文件，未缓存时从 Steam CDN 获取并生成
+     *
+     * @param appId   游戏 App ID
+     * @param variant 封面尺寸
+     * @return 封面文件；Steam 上没有该游戏的封面时为空
+     */
+    public Mono<Path> getCover(String appId, CoverVariant variant) {
+        if (!isValidAppId(appId)) {
+            return Mono.empty();
+        }
+        Path file = directory.resolve(variant.getValue()).resolve(appId + FILE_SUFFIX);
+        return Mono.fromCallable(() -> touch(file) ? file : null)
+            .subscribeOn(Schedulers.boundedElastic())
+            .switchIfEmpty(Mono.defer(() -> inFlight.computeIfAbsent(variant.getValue() + "/" + appId,
+                key -> create(appId, variant, file)
+                    .doFinally(signal -> inFlight.remove(key))
+                    .cache())));
+    }
+
+    private Mono<Path> create(String appId, CoverVariant variant, Path file) {
+        if (variant == CoverVariant.ORIGINAL) {
+            Instant missingSince = missing.get(appId);
+            if (missingSince != null && missingSince.plus(MISSING_TTL).isAfter(Instant.now())) {
+                return Mono.empty();
+            }
+            return steamApiService.getGameCover(appId)
+                .switchIfEmpty(Mono.fromRunnable(() -> missing.put(appId, Instant.now())))
+                .publishOn(Schedulers.boundedElastic())
+                .map(bytes -> write(file, bytes));
+        }
+        return getCover(appId, CoverVariant.ORIGINAL)
+            .publishOn(Schedulers.boundedElastic())
+            .map(original -> write(file, resize(original, variant.getWidth())));
+    }
+
+    /**
+     * 按宽度等比缩放为 JPEG，原图不大于目标宽度时直接使用原图
+     */
+    private static byte[] resize(Path original, int width) {
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null || source.getWidth() <= width) {
+                return Files.readAllBytes(original);
+            }
+            int height = Math.max(1, Math.round(source.getHeight() * (float) width / source.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(source, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            return encodeJpeg(scaled);
+        } catch (IOException e) {
+            throw new UncheckedIOException("生成封面缩略图失败: " + original, e);
+        }
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 原子写入缓存文件并淘汰超出上限的文件
+     */
+    private Path write(Path file, byte[] bytes) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_SUFFIX);
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入封面缓存失败: " + file, e);
+        }
+        synchronized (this) {
+            ensureIndexed();
+            Long previous = entries.put(file, (long) bytes.length);
+            totalBytes += bytes.length - (previous == null ? 0 : previous);
+            evict(file);
+        }
+        return file;
+    }
+
+    /**
+     * 标记缓存文件被访问
+     *
+     * @return 文件是否存在
+     */
+    private synchronized boolean touch(Path file) {
+        ensureIndexed();
+        if (entries.get(file) == null) {
+            return false;
+        }
+        if (Files.isRegularFile(file)) {
+            return true;
+        }
+        // 文件已被外部删除
+        totalBytes -= entries.remove(file);
+        return false;
+    }
+
+    /**
+     * 淘汰最久未访问的文件，直到缓存总大小不超过上限
+     *
+     * @param keep 刚写入、不淘汰的文件
+     */
+    private void evict(Path keep) {
+        Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(eldest.getKey());
+            } catch (IOException e) {
+                log.warn("删除封面缓存 {} 失败: {}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 首次使用时扫描缓存目录，以修改时间近似访问顺序
+     */
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        indexed = true;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            List<Path> cached = files.filter(Files::isRegularFile).toList();
+            cached.stream()
+                .filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                .sorted(Comparator.comparing(CoverCacheService::lastModified))
+                .forEach(path -> {
+                    long size = path.toFile().length();
+                    entries.put(path, size);
+                    totalBytes += size;
+                });
+            // 清理中断写入留下的临时文件
+            for (Path path : cached) {
+                if (path.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            log.info("封面缓存共 {} 个文件，{} KB", entries.size(), totalBytes / 1024);
+        } catch (IOException e) {
+            log.warn("扫描封面缓存目录失败: {}", e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        return path.toFile().lastModified();
+    }
+}
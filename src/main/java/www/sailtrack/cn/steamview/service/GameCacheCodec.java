@@ -0,0 +1,199 @@
+package www.sailtrack.cn.steamview.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import www.sailtrack.cn.steamview.model.Game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 游戏缓存存储格式编解码
+ * <p>游戏按固定数量切分为分片，每个分片以 Smile 二进制编码并 gzip 压缩后 Base64 保存在单独的 ConfigMap 中。
+ * 分片名称包含内容哈希，内容不变的分片保存时无需重写，清单切换到新分片列表即完成一次原子更新。
+ * 时长占比和统计数据可由原始字段重新计算，不保存。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class GameCacheCodec {
+
+    /**
+     * 当前存储格式版本
+     */
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * 每个分片的游戏数量
+     */
+    static final int SHARD_SIZE = 500;
+
+    static final String SHARD_NAME_PREFIX = GameCacheService.CACHE_RESOURCE_NAME + "-shard-";
+
+    /**
+     * 分片名称中的哈希长度（十六进制字符数）
+     */
+    private static final int HASH_LENGTH = 16;
+
+    private static final TypeReference<List<StoredGame>> STORED_GAMES_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final ObjectMapper jsonMapper;
+    private final String shardNamePrefix;
+
+    GameCacheCodec(ObjectMapper jsonMapper) {
+        this(jsonMapper, SHARD_NAME_PREFIX);
+    }
+
+    /**
+     * @param jsonMapper      清单使用的 JSON 编解码器
+     * @param shardNamePrefix 分片名称前缀，不同账号的分片互不共享
+     */
+    GameCacheCodec(ObjectMapper jsonMapper, String shardNamePrefix) {
+        this.jsonMapper = jsonMapper;
+        this.shardNamePrefix = shardNamePrefix;
+    }
+
+    /**
+     * 将游戏列表切分并编码为分片
+     *
+     * @param games 游戏列表
+     * @return 分片列表
+     */
+    List<Shard> encodeShards(List<Game> games) {
+        List<Shard> shards = new ArrayList<>((games.size() + SHARD_SIZE - 1) / SHARD_SIZE);
+        for (int from = 0; from < games.size(); from += SHARD_SIZE) {
+            List<StoredGame> chunk = games.subList(from, Math.min(games.size(), from + SHARD_SIZE)).stream()
+                .map(StoredGame::of)
+                .toList();
+            try {
+                byte[] raw = smileMapper.writeValueAsBytes(chunk);
+                String name = shardNamePrefix + hash(raw);
+                shards.add(new Shard(name, Base64.getEncoder().encodeToString(gzip(raw))));
+            } catch (IOException e) {
+                throw new UncheckedIOException("编码缓存分片失败", e);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * 解码分片并校验内容哈希
+     *
+     * @param name 分片名称
+     * @param data 分片数据
+     * @return 分片中的游戏
+     */
+    List<Game> decodeShard(String name, String data) {
+        if (data == null || data.isEmpty()) {
+            throw new IllegalStateException("缓存分片 " + name + " 没有数据");
+        }
+        try {
+            byte[] raw = gunzip(Base64.getDecoder().decode(data));
+            if (!name.equals(shardNamePrefix + hash(raw))) {
+                throw new IllegalStateException("缓存分片 " + name + " 内容校验失败");
+            }
+            return smileMapper.readValue(raw, STORED_GAMES_TYPE).stream()
+                .map(StoredGame::toGame)
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("解码缓存分片 " + name + " 失败", e);
+        }
+    }
+
+    String encodeManifest(Manifest manifest) {
+        try {
+            return jsonMapper.writeValueAsString(manifest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("编码缓存清单失败", e);
+        }
+    }
+
+    Manifest decodeManifest(String data) {
+        try {
+            return jsonMapper.readValue(data, Manifest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("解码缓存清单失败", e);
+        }
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    /**
+     * 编码后的分片
+     *
+     * @param name 分片名称（ConfigMap 名称）
+     * @param data 分片数据
+     */
+    record Shard(String name, String data) {
+    }
+
+    /**
+     * 缓存清单，保存在 {@link GameCacheService#CACHE_RESOURCE_NAME} 中
+     *
+     * @param format          存储格式版本
+     * @param lastUpdated     上次更新时间
+     * @param lastFullRefresh 上次完整刷新时间
+     * @param gameCount       游戏总数
+     * @param shards          按顺序排列的分片名称
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Manifest(int format, Instant lastUpdated, Instant lastFullRefresh, int gameCount, List<String> shards) {
+
+        Manifest {
+            shards = shards == null ? List.of() : List.copyOf(shards);
+        }
+    }
+
+    /**
+     * 分片中保存的游戏原始字段，原始名称只在与名称不同时写入
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record StoredGame(String appId, String name, @JsonInclude(JsonInclude.Include.NON_NULL) String originalName,
+                      long totalTime, long twoWeekTime, long rtimeLastPlayed) {
+
+        static StoredGame of(Game game) {
+            return new StoredGame(game.appId(), game.name(), game.originalName(), game.totalTime(),
+                game.twoWeekTime(), game.rtimeLastPlayed());
+        }
+
+        Game toGame() {
+            return new Game(appId, name, originalName, totalTime, twoWeekTime, rtimeLastPlayed, 0, 0);
+        }
+    }
+}
@@ -1,20 +1,47 @@
 package www.sailtrack.cn.steamview.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.extension.ConfigMap;
 import run.halo.app.extension.Metadata;
+import www.sailtrack.cn.steamview.event.GameLibraryUpdatedEvent;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.SteamAccount;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 游戏数据缓存服务
+ * <p>每次保存时快照版本在已保存版本的基础上加一，并发布 {@link GameLibraryUpdatedEvent}。</p>
+ * <p>游戏数据按 {@link GameCacheCodec} 的格式分片保存，{@link #CACHE_RESOURCE_NAME} 中只保存清单；
+ * 旧版本的单个 JSON 格式读取时仍可识别，下次保存时自动迁移。</p>
+ * <p>每个账号的快照、清单和分片相互独立：默认账号沿用 {@code game-cache}，
+ * 其他账号使用 {@code game-cache-<账号标识>}。</p>
  *
  * @author miku_0410
  * @since 1.0.0
@@ -23,110 +50,469 @@ import java.util.Map;
 @Service
 public class GameCacheService {
 
+    public static final String CACHE_RESOURCE_NAME = "game-cache";
+    private static final String MANIFEST_DATA_KEY = "manifest";
+    private static final String SHARD_DATA_KEY = "data";
+
+    /**
+     * 快照版本的数据键，单独保存以便写入前无需解析整个游戏库
+     */
+    private static final String VERSION_DATA_KEY = "version";
+
+    /**
+     * 并发写入发生冲突时的最大重试次数
+     */
+    private static final int MAX_SAVE_RETRIES = 3;
+
+    /**
+     * 并行读写分片的数量
+     */
+    private static final int SHARD_CONCURRENCY = 4;
+
+    /**
+     * 旧版本以无类型 JSON 保存的数据键，读取时自动迁移
+     */
+    private static final String LEGACY_CACHE_DATA_KEY = "gamesData";
+
     private final ReactiveExtensionClient extensionClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SteamViewMetrics metrics;
     private final ObjectMapper objectMapper;
-    private static final String CACHE_RESOURCE_NAME = "game-cache";
-    private static final String CACHE_DATA_KEY = "gamesData";
 
-    public GameCacheService(ReactiveExtensionClient extensionClient) {
+    /**
+     * 各账号的编解码器，分片名称前缀不同
+     */
+    private final Map<String, GameCacheCodec> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * 内存中各账号的已解码快照及其索引，热路径直接读取，无需访问扩展存储和解析 JSON
+     */
+    private final Map<String, GameSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 各账号的快照代数，每次失效时递增，防止失效前发起的加载覆盖新状态
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 正在进行的快照加载，并发的首次读取（如启动预热与首个请求）共享同一次加载
+     */
+    private final Map<String, Mono<GameSnapshot>> inFlightLoads = new ConcurrentHashMap<>();
+
+    public GameCacheService(ReactiveExtensionClient extensionClient, ApplicationEventPublisher eventPublisher,
+                            SteamViewMetrics metrics) {
         this.extensionClient = extensionClient;
-        this.objectMapper = new ObjectMapper();
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * 获取账号的缓存资源名称
+     *
+     * @param accountId 账号标识
+     * @return 缓存资源名称
+     */
+    public static String cacheResourceName(String accountId) {
+        return SteamAccount.DEFAULT_ID.equals(accountId) ? CACHE_RESOURCE_NAME : CACHE_RESOURCE_NAME + "-" + accountId;
+    }
+
+    private GameCacheCodec codec(String accountId) {
+        return codecs.computeIfAbsent(accountId, id -> SteamAccount.DEFAULT_ID.equals(id)
+            ? new GameCacheCodec(objectMapper)
+            : new GameCacheCodec(objectMapper, cacheResourceName(id) + "-shard-"));
+    }
+
+    private AtomicLong generation(String accountId) {
+        return generations.computeIfAbsent(accountId, id -> new AtomicLong());
     }
 
     /**
-     * 获取缓存的游戏数据
+     * 获取缓存的游戏库快照及其索引
+     * <p>缓存过期时仍返回旧数据，由调用方通过 {@link GameLibrary#isExpired(int)} 判断是否需要后台刷新。</p>
      *
+     * @param accountId 账号标识
+     * @return 游戏库快照，无缓存时为空
+     */
+    public Mono<GameSnapshot> getCachedGames(String accountId) {
+        return getSnapshot(accountId)
+            .onErrorResume(e -> {
+                log.error("获取缓存失败", e);
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 检查缓存是否已过期，无缓存视为过期
+     *
+     * @param accountId       账号标识
      * @param refreshInterval 刷新频率（小时）
-     * @return 游戏数据
+     * @return 是否过期
      */
-    public Mono<Map<String, Object>> getCachedGames(int refreshInterval) {
-        return extensionClient.fetch(ConfigMap.class, CACHE_RESOURCE_NAME)
-            .flatMap(configMap -> {
-                try {
-                    String jsonData = configMap.getData().get(CACHE_DATA_KEY);
-                    if (jsonData == null || jsonData.isEmpty()) {
-                        return Mono.empty();
-                    }
-
-                    Map<String, Object> data = objectMapper.readValue(
-                        jsonData,
-                        new TypeReference<Map<String, Object>>() {}
-                    );
-
-                    // 检查缓存是否过期
-                    String lastUpdatedStr = (String) data.get("lastUpdated");
-                    if (lastUpdatedStr != null) {
-                        Instant lastUpdated = Instant.parse(lastUpdatedStr);
-                        Instant now = Instant.now();
-                        long hoursSinceUpdate = java.time.Duration.between(lastUpdated, now).toHours();
-
-                        if (hoursSinceUpdate < refreshInterval) {
-                            log.info("使用缓存数据，上次更新: {} 小时前", hoursSinceUpdate);
-                            return Mono.just(data);
-                        } else {
-                            log.info("缓存已过期（{} 小时前更新），需要刷新", hoursSinceUpdate);
-                            return Mono.empty();
-                        }
-                    }
-                    return Mono.empty();
-                } catch (Exception e) {
-                    log.error("读取缓存数据失败", e);
-                    return Mono.empty();
+    public Mono<Boolean> isCacheExpired(String accountId, int refreshInterval) {
+        return getSnapshot(accountId)
+            .map(cached -> cached.library().isExpired(refreshInterval))
+            .defaultIfEmpty(true)
+            .onErrorReturn(true);
+    }
+
+    /**
+     * 获取内存快照，不存在时从扩展存储加载，已有加载在进行时直接共享其结果
+     *
+     * @param accountId 账号标识
+     * @return 内存快照
+     */
+    private Mono<GameSnapshot> getSnapshot(String accountId) {
+        return Mono.justOrEmpty(snapshots.get(accountId))
+            .switchIfEmpty(Mono.defer(() -> inFlightLoads.computeIfAbsent(accountId,
+                key -> loadSnapshot(accountId)
+                    .doFinally(signal -> inFlightLoads.remove(key))
+                    .cache())));
+    }
+
+    /**
+     * 从扩展存储加载缓存并解码为内存快照
+     *
+     * @param accountId 账号标识
+     * @return 内存快照
+     */
+    private Mono<GameSnapshot> loadSnapshot(String accountId) {
+        AtomicLong generation = generation(accountId);
+        long loadGeneration = generation.get();
+        return extensionClient.fetch(ConfigMap.class, cacheResourceName(accountId))
+            .flatMap(configMap -> decode(accountId, configMap.getData())
+                .map(library -> GameSnapshot.of(library, configMap.getMetadata().getVersion())))
+            .doOnNext(loaded -> {
+                // 加载期间缓存被保存或清除时，放弃本次加载结果
+                if (generation.get() == loadGeneration && snapshots.putIfAbsent(accountId, loaded) == null) {
+                    eventPublisher.publishEvent(new GameLibraryUpdatedEvent(this, accountId, null, loaded.library()));
                 }
+                log.info("已从扩展存储加载账号 {} 的缓存快照，版本: {}", accountId, loaded.version());
             })
             .onErrorResume(e -> {
-                log.error("获取缓存失败", e);
+                log.error("读取缓存数据失败", e);
                 return Mono.empty();
             });
     }
 
+    /**
+     * 解码缓存数据，按清单并行加载分片
+     *
+     * @param accountId 账号标识
+     * @param data      清单 ConfigMap 数据
+     * @return 游戏库快照，无数据时为空
+     */
+    private Mono<GameLibrary> decode(String accountId, Map<String, String> data) {
+        String manifestData = data == null ? null : data.get(MANIFEST_DATA_KEY);
+        if (manifestData == null || manifestData.isEmpty()) {
+            return Mono.fromCallable(() -> decodeLegacy(data))
+                .doOnNext(library -> metrics.recordSnapshot(accountId, library.games().size(), dataBytes(data)));
+        }
+        GameCacheCodec codec = codec(accountId);
+        GameCacheCodec.Manifest manifest = codec.decodeManifest(manifestData);
+        AtomicLong bytes = new AtomicLong();
+        return Flux.fromIterable(manifest.shards())
+            .flatMapSequential(name -> extensionClient.fetch(ConfigMap.class, name)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("缓存分片 " + name + " 不存在")))
+                .publishOn(Schedulers.parallel())
+                .map(shard -> {
+                    String shardData = shard.getData() == null ? null : shard.getData().get(SHARD_DATA_KEY);
+                    bytes.addAndGet(shardData == null ? 0 : shardData.length());
+                    return codec.decodeShard(name, shardData);
+                }),
+                SHARD_CONCURRENCY)
+            .collect(() -> new ArrayList<Game>(manifest.gameCount()), List::addAll)
+            .map(games -> GameLibrary.of(games, manifest.lastUpdated(), manifest.lastFullRefresh())
+                .withVersion(storedVersion(data)))
+            .doOnNext(library -> metrics.recordSnapshot(accountId, library.games().size(), bytes.get()));
+    }
+
+    /**
+     * 解码旧版本的无类型 JSON 格式缓存数据
+     *
+     * @param data ConfigMap 数据
+     * @return 游戏库快照，无数据时为 null
+     * @throws Exception 解析失败
+     */
+    private GameLibrary decodeLegacy(Map<String, String> data) throws Exception {
+        String legacyData = data == null ? null : data.get(LEGACY_CACHE_DATA_KEY);
+        if (legacyData == null || legacyData.isEmpty()) {
+            return null;
+        }
+        log.info("检测到旧版本缓存格式，下次保存时迁移为分片格式");
+        return decodeLegacy(objectMapper.readTree(legacyData));
+    }
+
+    /**
+     * 解码旧版本缓存，旧格式只保存了格式化后的最后游玩日期
+     *
+     * @param root 旧版本缓存 JSON
+     * @return 游戏库快照
+     */
+    private GameLibrary decodeLegacy(JsonNode root) {
+        List<Game> games = new ArrayList<>();
+        for (JsonNode gameNode : root.path("games")) {
+            long rtimeLastPlayed = 0;
+            String lastPlayed = gameNode.path("lastPlayed").asText();
+            try {
+                rtimeLastPlayed = LocalDate.parse(lastPlayed)
+                    .atStartOfDay(ZoneId.systemDefault())
+                    .toEpochSecond();
+            } catch (Exception ignored) {
+                // 从未游玩
+            }
+            games.add(Game.of(
+                gameNode.path("appId").asText(),
+                gameNode.path("name").asText(),
+                gameNode.path("totalTime").asLong(),
+                gameNode.path("twoWeekTime").asLong(),
+                rtimeLastPlayed
+            ));
+        }
+        String lastUpdated = root.path("lastUpdated").asText(null);
+        return GameLibrary.of(games, lastUpdated == null ? null : Instant.parse(lastUpdated));
+    }
+
     /**
      * 保存游戏数据到缓存
+     * <p>先写入内容有变化的分片，再更新清单，最后删除不再引用的分片。
+     * 快照版本由已保存的版本加一得到，调用方传入的版本会被忽略。</p>
+     * <p>保存期间请求继续使用之前的内存快照，清单写入成功后才替换为新快照；保存失败时保留之前的快照，
+     * 并删除本次新建且未被清单引用的分片。</p>
      *
-     * @param gamesData 游戏数据
+     * @param accountId 账号标识
+     * @param library   游戏库快照
      * @return 保存结果
      */
-    public Mono<Void> saveCachedGames(Map<String, Object> gamesData) {
-        try {
-            String jsonData = objectMapper.writeValueAsString(gamesData);
-            Map<String, String> dataMap = new HashMap<>();
-            dataMap.put(CACHE_DATA_KEY, jsonData);
-
-            return extensionClient.fetch(ConfigMap.class, CACHE_RESOURCE_NAME)
-                .flatMap(configMap -> {
-                    // 更新现有缓存
-                    configMap.setData(dataMap);
-                    return extensionClient.update(configMap);
+    public Mono<Void> saveCachedGames(String accountId, GameLibrary library) {
+        return Mono.defer(() -> {
+            GameSnapshot previous = snapshots.get(accountId);
+            List<String> created = Collections.synchronizedList(new ArrayList<>());
+            return Mono.fromCallable(() -> codec(accountId).encodeShards(library.games()))
+                .flatMap(shards -> writeShards(shards, created)
+                    .then(writeManifest(accountId, library, shards)
+                        // 其他实例同时写入时重新读取版本
+                        .retryWhen(Retry.max(MAX_SAVE_RETRIES)
+                            .filter(OptimisticLockingFailureException.class::isInstance)))
+                    .doOnNext(result -> metrics.recordSnapshot(accountId, library.games().size(), shardBytes(shards))))
+                // 分片或清单写入失败时，删除本次新建但未被清单引用的分片
+                .onErrorResume(e -> deleteOrphanedShards(accountId, created).then(Mono.error(e)))
+                .doOnNext(result -> {
+                    // 清单写入成功后直接以已解码数据作为新快照，无需再读回解析；
+                    // 递增代数使保存期间发起的加载放弃其结果
+                    GameSnapshot saved = result.snapshot();
+                    generation(accountId).incrementAndGet();
+                    snapshots.put(accountId, saved);
+                    GameLibrary current = saved.library();
+                    boolean continuous = previous != null && previous.library().version() == current.version() - 1;
+                    eventPublisher.publishEvent(new GameLibraryUpdatedEvent(this, accountId,
+                        continuous ? previous.library() : null, current));
                 })
-                .switchIfEmpty(
-                    // 创建新缓存
-                    Mono.defer(() -> {
-                        ConfigMap configMap = new ConfigMap();
-                        Metadata metadata = new Metadata();
-                        metadata.setName(CACHE_RESOURCE_NAME);
-                        configMap.setMetadata(metadata);
-                        configMap.setData(dataMap);
-                        return extensionClient.create(configMap);
-                    })
-                )
-                .doOnSuccess(v -> log.info("游戏数据已缓存"))
+                .flatMap(result -> deleteShards(result.unreferencedShards())
+                    .thenReturn(result.snapshot()))
+                .doOnSuccess(saved -> log.info("账号 {} 的游戏数据已缓存，快照版本: {}", accountId,
+                    saved.library().version()))
                 .doOnError(e -> log.error("缓存游戏数据失败", e))
                 .then();
+        });
+    }
+
+    /**
+     * 写入尚不存在的分片，分片名称包含内容哈希，已存在即内容相同
+     *
+     * @param shards  分片列表
+     * @param created 记录本次新建的分片名称
+     * @return 写入结果
+     */
+    private Mono<Void> writeShards(List<GameCacheCodec.Shard> shards, List<String> created) {
+        return Flux.fromIterable(shards)
+            .flatMap(shard -> extensionClient.fetch(ConfigMap.class, shard.name())
+                .switchIfEmpty(Mono.defer(() -> {
+                    ConfigMap configMap = new ConfigMap();
+                    Metadata metadata = new Metadata();
+                    metadata.setName(shard.name());
+                    configMap.setMetadata(metadata);
+                    configMap.setData(Map.of(SHARD_DATA_KEY, shard.data()));
+                    log.debug("写入缓存分片 {}", shard.name());
+                    return extensionClient.create(configMap)
+                        .doOnNext(saved -> created.add(shard.name()));
+                })), SHARD_CONCURRENCY)
+            .then();
+    }
+
+    /**
+     * 删除保存失败时新建的分片，已保存清单仍引用的分片保留
+     * <p>分片名称包含内容哈希，其他实例的保存可能恰好引用了同名分片，因此删除前重新读取清单。</p>
+     *
+     * @param accountId 账号标识
+     * @param created   本次新建的分片名称
+     * @return 删除结果
+     */
+    private Mono<Void> deleteOrphanedShards(String accountId, List<String> created) {
+        if (created.isEmpty()) {
+            return Mono.empty();
+        }
+        return extensionClient.fetch(ConfigMap.class, cacheResourceName(accountId))
+            .map(configMap -> new HashSet<>(referencedShards(codec(accountId), configMap.getData())))
+            .defaultIfEmpty(new HashSet<>())
+            .flatMap(referenced -> {
+                List<String> orphaned = new ArrayList<>(created);
+                orphaned.removeAll(referenced);
+                log.info("账号 {} 的缓存保存失败，删除 {} 个未引用的新分片", accountId, orphaned.size());
+                return deleteShards(orphaned);
+            })
+            .onErrorResume(e -> {
+                log.warn("清理账号 {} 未引用的缓存分片失败: {}", accountId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 更新清单，切换到新的分片列表
+     *
+     * @param accountId 账号标识
+     * @param library   游戏库快照
+     * @param shards    分片列表
+     * @return 保存结果
+     */
+    private Mono<SaveResult> writeManifest(String accountId, GameLibrary library, List<GameCacheCodec.Shard> shards) {
+        List<String> shardNames = shards.stream()
+            .map(GameCacheCodec.Shard::name)
+            .toList();
+        GameCacheCodec codec = codec(accountId);
+        return extensionClient.fetch(ConfigMap.class, cacheResourceName(accountId))
+            .flatMap(configMap -> {
+                // 更新现有清单，同时清除旧格式数据
+                List<String> unreferenced = referencedShards(codec, configMap.getData());
+                unreferenced.removeAll(new HashSet<>(shardNames));
+                GameLibrary versioned = library.withVersion(storedVersion(configMap.getData()) + 1);
+                configMap.setData(encodeManifest(codec, versioned, shardNames));
+                return extensionClient.update(configMap)
+                    .map(saved -> new SaveResult(GameSnapshot.of(versioned, saved.getMetadata().getVersion()),
+                        unreferenced));
+            })
+            .switchIfEmpty(Mono.defer(() -> {
+                // 创建新清单
+                GameLibrary versioned = library.withVersion(1);
+                ConfigMap configMap = new ConfigMap();
+                Metadata metadata = new Metadata();
+                metadata.setName(cacheResourceName(accountId));
+                configMap.setMetadata(metadata);
+                configMap.setData(encodeManifest(codec, versioned, shardNames));
+                return extensionClient.create(configMap)
+                    .map(saved -> new SaveResult(GameSnapshot.of(versioned, saved.getMetadata().getVersion()),
+                        List.of()));
+            }));
+    }
+
+    private static Map<String, String> encodeManifest(GameCacheCodec codec, GameLibrary library,
+                                                      List<String> shardNames) {
+        GameCacheCodec.Manifest manifest = new GameCacheCodec.Manifest(GameCacheCodec.FORMAT_VERSION,
+            library.lastUpdated(), library.lastFullRefresh(), library.games().size(), shardNames);
+        Map<String, String> dataMap = new HashMap<>();
+        dataMap.put(MANIFEST_DATA_KEY, codec.encodeManifest(manifest));
+        dataMap.put(VERSION_DATA_KEY, String.valueOf(library.version()));
+        return dataMap;
+    }
+
+    /**
+     * 读取清单引用的分片名称
+     *
+     * @param codec 编解码器
+     * @param data  清单 ConfigMap 数据
+     * @return 分片名称（可修改）
+     */
+    private static List<String> referencedShards(GameCacheCodec codec, Map<String, String> data) {
+        String manifestData = data == null ? null : data.get(MANIFEST_DATA_KEY);
+        if (manifestData == null || manifestData.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(codec.decodeManifest(manifestData).shards());
         } catch (Exception e) {
-            log.error("序列化游戏数据失败", e);
-            return Mono.error(e);
+            log.warn("读取缓存清单失败，跳过清理旧分片: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 删除分片，失败时只记录日志
+     *
+     * @param shardNames 分片名称
+     * @return 删除结果
+     */
+    private Mono<Void> deleteShards(List<String> shardNames) {
+        return Flux.fromIterable(shardNames)
+            .flatMap(name -> extensionClient.fetch(ConfigMap.class, name)
+                .flatMap(extensionClient::delete)
+                .doOnSuccess(v -> log.debug("已删除缓存分片 {}", name))
+                .onErrorResume(e -> {
+                    log.warn("删除缓存分片 {} 失败: {}", name, e.getMessage());
+                    return Mono.empty();
+                }), SHARD_CONCURRENCY)
+            .then();
+    }
+
+    /**
+     * 计算分片编码后的总大小
+     *
+     * @param shards 分片列表
+     * @return 字节数
+     */
+    private static long shardBytes(List<GameCacheCodec.Shard> shards) {
+        long bytes = 0;
+        for (GameCacheCodec.Shard shard : shards) {
+            bytes += shard.data().length();
+        }
+        return bytes;
+    }
+
+    /**
+     * 计算 JSON 格式缓存数据的总大小
+     *
+     * @param data ConfigMap 数据
+     * @return 字节数
+     */
+    private static long dataBytes(Map<String, String> data) {
+        long bytes = 0;
+        for (String value : data.values()) {
+            bytes += value == null ? 0 : value.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * 读取已保存的快照版本，旧版本数据没有版本时为 0
+     *
+     * @param data ConfigMap 数据
+     * @return 快照版本
+     */
+    private static long storedVersion(Map<String, String> data) {
+        String version = data == null ? null : data.get(VERSION_DATA_KEY);
+        if (version == null || version.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(version.trim());
+        } catch (NumberFormatException e) {
+            return 0;
         }
     }
 
     /**
      * 清除缓存
      *
+     * @param accountId 账号标识
      * @return 清除结果
      */
-    public Mono<Void> clearCache() {
-        return extensionClient.fetch(ConfigMap.class, CACHE_RESOURCE_NAME)
-            .flatMap(extension -> extensionClient.delete(extension))
-            .doOnSuccess(v -> log.info("缓存已清除"))
+    public Mono<Void> clearCache(String accountId) {
+        return Mono.fromRunnable(() -> invalidate(accountId))
+            .then(extensionClient.fetch(ConfigMap.class, cacheResourceName(accountId)))
+            .flatMap(configMap -> extensionClient.delete(configMap)
+                .then(deleteShards(referencedShards(codec(accountId), configMap.getData()))))
+            .doOnSuccess(v -> log.info("账号 {} 的缓存已清除", accountId))
             .doOnError(e -> log.error("清除缓存失败", e))
             .then();
     }
@@ -134,11 +520,61 @@ public class GameCacheService {
     /**
      * 检查缓存是否存在
      *
+     * @param accountId 账号标识
      * @return 是否存在缓存
      */
-    public Mono<Boolean> cacheExists() {
-        return extensionClient.fetch(ConfigMap.class, CACHE_RESOURCE_NAME)
+    public Mono<Boolean> cacheExists(String accountId) {
+        if (snapshots.containsKey(accountId)) {
+            return Mono.just(true);
+        }
+        return extensionClient.fetch(ConfigMap.class, cacheResourceName(accountId))
             .map(extension -> true)
             .defaultIfEmpty(false);
     }
-}
\ No newline at end of file
+
+    /**
+     * 查找缓存资源对应的已加载账号
+     *
+     * @param resourceName 扩展资源名称
+     * @return 账号标识，不是已加载账号的缓存资源时为空
+     */
+    public Optional<String> loadedAccountOf(String resourceName) {
+        return snapshots.keySet().stream()
+            .filter(accountId -> cacheResourceName(accountId).equals(resourceName))
+            .findFirst();
+    }
+
+    /**
+     * 缓存资源发生变化时调用，资源版本与内存快照不一致则使快照失效
+     *
+     * @param accountId       账号标识
+     * @param resourceVersion 最新的资源版本，资源已删除时为 null
+     */
+    public void onCacheResourceChanged(String accountId, Long resourceVersion) {
+        GameSnapshot current = snapshots.get(accountId);
+        if (current == null || Objects.equals(current.version(), resourceVersion)) {
+            return;
+        }
+        log.info("账号 {} 的缓存资源版本变化（{} -> {}），内存快照失效", accountId, current.version(), resourceVersion);
+        invalidate(accountId);
+    }
+
+    /**
+     * 使内存快照失效
+     *
+     * @param accountId 账号标识
+     */
+    private void invalidate(String accountId) {
+        generation(accountId).incrementAndGet();
+        snapshots.remove(accountId);
+    }
+
+    /**
+     * 保存结果
+     *
+     * @param snapshot           新快照
+     * @param unreferencedShards 不再被清单引用的分片
+     */
+    private record SaveResult(GameSnapshot snapshot, List<String> unreferencedShards) {
+    }
+}
@@ -0,0 +1,148 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import www.sailtrack.cn.steamview.event.GameLibraryUpdatedEvent;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 游戏变更日志
+ * <p>在内存中记录最近若干个快照版本之间变化的 App ID，用于增量同步。比较时只看 Steam 返回的原始字段，
+ * 时长占比随总时长整体变化，不视为单个游戏的变更。插件重启或版本不连续时日志被截断，
+ * 早于截断点的请求需要完整同步。每个账号的日志相互独立。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class GameChangeLog {
+
+    /**
+     * 保留的最大版本数
+     */
+    private static final int MAX_ENTRIES = 128;
+
+    /**
+     * 各账号的变更日志
+     */
+    private final Map<String, AccountLog> logs = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onLibraryUpdated(GameLibraryUpdatedEvent event) {
+        logs.computeIfAbsent(event.getAccountId(), accountId -> new AccountLog())
+            .append(event.getAccountId(), event.getPrevious(), event.getCurrent());
+    }
+
+    /**
+     * 获取指定版本之后变化的 App ID
+     *
+     * @param accountId      账号标识
+     * @param since          客户端持有的版本
+     * @param currentVersion 当前快照版本
+     * @return 变化的 App ID；日志无法覆盖该区间（需完整同步）时为空
+     */
+    public Optional<Set<String>> changedSince(String accountId, long since, long currentVersion) {
+        AccountLog accountLog = logs.get(accountId);
+        return accountLog == null ? Optional.empty() : accountLog.changedSince(since, currentVersion);
+    }
+
+    /**
+     * 比较两个版本的游戏列表，返回新增、删除或修改的 App ID
+     */
+    private static Set<String> diff(List<Game> previous, List<Game> current) {
+        Map<String, Game> previousById = new HashMap<>(previous.size() * 2);
+        for (Game game : previous) {
+            previousById.put(game.appId(), game);
+        }
+        Set<String> changed = new HashSet<>();
+        for (Game game : current) {
+            Game old = previousById.remove(game.appId());
+            if (old == null || !sameRawFields(old, game)) {
+                changed.add(game.appId());
+            }
+        }
+        changed.addAll(previousById.keySet());
+        return changed;
+    }
+
+    private static boolean sameRawFields(Game a, Game b) {
+        return a.totalTime() == b.totalTime()
+            && a.twoWeekTime() == b.twoWeekTime()
+            && a.rtimeLastPlayed() == b.rtimeLastPlayed()
+            && Objects.equals(a.name(), b.name());
+    }
+
+    /**
+     * 单个账号的变更日志
+     */
+    private static final class AccountLog {
+
+        private final Deque<Entry> entries = new ArrayDeque<>();
+
+        /**
+         * 可增量同步的最早版本
+         */
+        private long baseVersion = -1;
+
+        /**
+         * 日志记录到的最新版本
+         */
+        private long headVersion = -1;
+
+        synchronized void append(String accountId, GameLibrary previous, GameLibrary current) {
+            if (current.version() == headVersion) {
+                return;
+            }
+            if (previous == null || previous.version() != headVersion || current.version() < headVersion) {
+                // 无法与日志中的最新版本衔接，以当前版本为新的基准
+                entries.clear();
+                baseVersion = current.version();
+                headVersion = current.version();
+                log.debug("账号 {} 的变更日志已重置，基准版本: {}", accountId, baseVersion);
+                return;
+            }
+
+            entries.addLast(new Entry(current.version(), diff(previous.games(), current.games())));
+            headVersion = current.version();
+            while (entries.size() > MAX_ENTRIES) {
+                baseVersion = entries.removeFirst().version();
+            }
+        }
+
+        synchronized Optional<Set<String>> changedSince(long since, long currentVersion) {
+            if (currentVersion != headVersion || since < baseVersion || since > headVersion) {
+                return Optional.empty();
+            }
+            Set<String> changed = new HashSet<>();
+            for (Entry entry : entries) {
+                if (entry.version() > since) {
+                    changed.addAll(entry.appIds());
+                }
+            }
+            return Optional.of(changed);
+        }
+    }
+
+    /**
+     * 单个版本的变更
+     *
+     * @param version 版本
+     * @param appIds  相对上一版本变化的 App ID
+     */
+    private record Entry(long version, Set<String> appIds) {
+    }
+}
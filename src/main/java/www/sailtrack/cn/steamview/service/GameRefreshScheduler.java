@@ -0,0 +1,121 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+
+import java.time.Duration;
+
+/**
+ * 游戏数据后台刷新调度器
+ * <p>定期检查缓存，距上次完整刷新超过配置的刷新频率时在后台完整刷新，否则每小时增量刷新一次最近游玩的游戏，
+ * 用户请求无需等待 Steam API。</p>
+ * <p>每个已配置凭据的账号独立判断是否需要刷新；同时进行的刷新数量由 {@link GameRefreshService} 统一限制，
+ * 与用户请求触发的刷新共用同一个上限。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class GameRefreshScheduler {
+
+    /**
+     * 首次检查前的延迟
+     */
+    private static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+
+    /**
+     * 检查缓存是否过期的周期
+     */
+    private static final Duration CHECK_INTERVAL = Duration.ofMinutes(5);
+
+    /**
+     * 增量刷新的周期
+     */
+    private static final Duration INCREMENTAL_REFRESH_INTERVAL = Duration.ofHours(1);
+
+    private final SteamViewConfigService configService;
+    private final GameCacheService gameCacheService;
+    private final GameRefreshService gameRefreshService;
+
+    private Disposable task;
+
+    public GameRefreshScheduler(SteamViewConfigService configService,
+                                GameCacheService gameCacheService,
+                                GameRefreshService gameRefreshService) {
+        this.configService = configService;
+        this.gameCacheService = gameCacheService;
+        this.gameRefreshService = gameRefreshService;
+    }
+
+    /**
+     * 启动调度器
+     */
+    public synchronized void start() {
+        if (task != null && !task.isDisposed()) {
+            return;
+        }
+        task = Flux.interval(INITIAL_DELAY, CHECK_INTERVAL)
+            .onBackpressureDrop()
+            .concatMap(tick -> refreshIfDue())
+            .subscribe();
+        log.info("后台刷新调度器已启动");
+    }
+
+    /**
+     * 停止调度器
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.dispose();
+            task = null;
+            log.info("后台刷新调度器已停止");
+        }
+    }
+
+    /**
+     * 依次检查所有已配置的账号
+     *
+     * @return 刷新结果
+     */
+    private Mono<Void> refreshIfDue() {
+        return configService.getConfig()
+            .flatMapMany(config -> Flux.fromIterable(config.accounts())
+                .filter(SteamAccount::isConfigured)
+                .flatMap(account -> refreshIfDue(account.id(), config.refreshInterval())))
+            .then()
+            .onErrorResume(e -> {
+                log.warn("读取插件配置失败: {}", e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 缓存过期时完整刷新，超过增量刷新周期时增量刷新
+     *
+     * @param accountId       账号标识
+     * @param refreshInterval 刷新频率（小时）
+     * @return 刷新结果
+     */
+    private Mono<Void> refreshIfDue(String accountId, int refreshInterval) {
+        return gameCacheService.isCacheExpired(accountId, refreshInterval)
+            .flatMap(expired -> {
+                if (expired) {
+                    log.info("账号 {} 的缓存已过期，开始后台完整刷新", accountId);
+                    return gameRefreshService.refresh(accountId);
+                }
+                return gameCacheService.getCachedGames(accountId)
+                    .filter(snapshot -> snapshot.library().isUpdatedBefore(INCREMENTAL_REFRESH_INTERVAL))
+                    .flatMap(snapshot -> gameRefreshService.refreshRecent(accountId));
+            })
+            .then()
+            .onErrorResume(e -> {
+                log.warn("后台刷新账号 {} 的游戏数据失败: {}", accountId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+}
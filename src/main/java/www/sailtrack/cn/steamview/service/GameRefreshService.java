@@ -0,0 +1,509 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.GameSnapshot;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+import www.sailtrack.cn.steamview.model.SteamViewConfig;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 游戏数据刷新服务
+ * <p>同一账号同时只会有一次刷新在进行，并发调用方共享同一个刷新结果；不同账号的刷新互不影响。</p>
+ * <p>完整刷新重新获取整个游戏库；增量刷新只获取最近游玩的游戏，在缓存快照上更新受影响游戏的时长，
+ * 适合高频执行。两者共用同一个进行中刷新：增量刷新进行中时发起的完整刷新排在其后执行并取代它，
+ * 完整刷新进行中时发起的增量刷新直接共享完整刷新的结果，因此过期的增量结果不会覆盖完整刷新，
+ * 也不会有两次保存同时清理分片。</p>
+ * <p>所有账号同时访问 Steam API 的刷新数量受 {@link #MAX_CONCURRENT_REFRESHES} 限制，
+ * 超出的刷新排队等待；调度器、页面渲染和接口触发的刷新共用同一个限制，避免多个账号同时占满请求配额。</p>
+ * <p>刷新的开始、各阶段、本地化名称查询进度和结果通过 {@link RefreshProgressService} 广播。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class GameRefreshService {
+
+    /**
+     * 两次手动刷新之间的最小间隔
+     */
+    private static final Duration MIN_MANUAL_REFRESH_INTERVAL = Duration.ofSeconds(60);
+
+    /**
+     * 完整刷新失败后，后台刷新暂停的时长
+     */
+    private static final Duration FAILURE_BACKOFF = Duration.ofMinutes(5);
+
+    /**
+     * 同时访问 Steam API 的刷新数量上限
+     */
+    private static final int MAX_CONCURRENT_REFRESHES = 2;
+
+    private final SteamApiService steamApiService;
+    private final SteamViewConfigService configService;
+    private final GameCacheService gameCacheService;
+    private final LocalizedNameService localizedNameService;
+    private final SteamViewMetrics metrics;
+    private final RefreshProgressService progress;
+
+    /**
+     * 正在进行的刷新，按账号区分
+     */
+    private final Map<String, Flight> inFlightRefreshes = new ConcurrentHashMap<>();
+
+    /**
+     * 上次开始完整刷新的时间（无论成功与否），按账号区分
+     */
+    private final Map<String, Instant> lastAttempted = new ConcurrentHashMap<>();
+
+    /**
+     * 完整刷新失败后允许再次后台刷新的时间，按账号区分，刷新成功时清除
+     */
+    private final Map<String, Instant> retryAfter = new ConcurrentHashMap<>();
+
+    /**
+     * 等待执行的刷新，按 {@link #MAX_CONCURRENT_REFRESHES} 限制并发执行
+     */
+    private final Sinks.Many<Mono<Void>> refreshQueue = Sinks.many().unicast().onBackpressureBuffer();
+
+    public GameRefreshService(SteamApiService steamApiService,
+                              SteamViewConfigService configService,
+                              GameCacheService gameCacheService,
+                              LocalizedNameService localizedNameService,
+                              SteamViewMetrics metrics,
+                              RefreshProgressService progress) {
+        this.steamApiService = steamApiService;
+        this.configService = configService;
+        this.gameCacheService = gameCacheService;
+        this.localizedNameService = localizedNameService;
+        this.metrics = metrics;
+        this.progress = progress;
+        refreshQueue.asFlux()
+            .flatMap(task -> task, MAX_CONCURRENT_REFRESHES)
+            .subscribe();
+    }
+
+    /**
+     * 从 Steam API 刷新游戏数据，已有刷新在进行时直接共享其结果
+     *
+     * @param accountId 账号标识
+     * @return 游戏数据
+     */
+    public Mono<GameLibrary> refresh(String accountId) {
+        return withCredentials(accountId, this::singleFlight);
+    }
+
+    /**
+     * 增量刷新：只获取最近游玩的游戏并更新缓存快照
+     * <p>完整刷新正在进行时共享其结果；没有缓存时执行完整刷新。</p>
+     *
+     * @param accountId 账号标识
+     * @return 游戏数据
+     */
+    public Mono<GameLibrary> refreshRecent(String accountId) {
+        return withCredentials(accountId, (account, config) -> Mono.defer(() ->
+            inFlightRefreshes.computeIfAbsent(account.id(), id -> {
+                log.info("开始增量刷新账号 {}（Steam ID {}）的游戏数据", id, account.steamId());
+                Mono<GameLibrary> result = limited(gameCacheService.getCachedGames(id)
+                        .map(GameSnapshot::library)
+                        .flatMap(library -> reportProgress(id, fetchRecentFromSteamApi(library, account, config)))
+                        .switchIfEmpty(Mono.defer(() -> fullRefresh(account, config))))
+                    .doFinally(signal -> finish(id, false))
+                    .cache();
+                return new Flight(result, false);
+            }).result()));
+    }
+
+    /**
+     * 在后台触发刷新，不等待结果
+     * <p>上次完整刷新失败后的 {@link #FAILURE_BACKOFF} 内不触发，避免 Steam 不可用时每次读取过期快照都发起注定失败的刷新。</p>
+     *
+     * @param accountId 账号标识
+     */
+    public void refreshInBackground(String accountId) {
+        Instant retryAt = retryAfter.get(accountId);
+        if (retryAt != null && Instant.now().isBefore(retryAt)) {
+            log.debug("账号 {} 上次刷新失败，{} 前不再后台刷新", accountId, retryAt);
+            return;
+        }
+        refresh(accountId).subscribe(
+            result -> log.info("后台刷新账号 {} 的游戏数据完成", accountId),
+            e -> log.warn("后台刷新账号 {} 的游戏数据失败: {}", accountId, e.getMessage())
+        );
+    }
+
+    /**
+     * 手动刷新游戏数据
+     * <p>已有刷新在进行时共享其结果；距上次开始刷新不足最小间隔时拒绝刷新，刷新失败也计入间隔。</p>
+     *
+     * @param accountId 账号标识
+     * @return 游戏数据
+     */
+    public Mono<GameLibrary> manualRefresh(String accountId) {
+        return withCredentials(accountId, (account, config) -> {
+            Flight current = inFlightRefreshes.get(account.id());
+            if (current == null || !current.full()) {
+                // 接受请求时即记录，并发请求中只有一个能通过检查；返回的不是本次时间即表示被拒绝
+                Instant now = Instant.now();
+                Instant last = lastAttempted.compute(account.id(), (id, previous) ->
+                    previous != null && Duration.between(previous, now).compareTo(MIN_MANUAL_REFRESH_INTERVAL) < 0
+                        ? previous : now);
+                if (last != now) {
+                    Duration elapsed = Duration.between(last, now);
+                    long waitSeconds = MIN_MANUAL_REFRESH_INTERVAL.minus(elapsed).toSeconds() + 1;
+                    return Mono.error(new RuntimeException("刷新过于频繁，请 " + waitSeconds + " 秒后再试"));
+                }
+            }
+            return singleFlight(account, config);
+        });
+    }
+
+    /**
+     * 读取账号并校验 Steam API Key 和 Steam ID
+     *
+     * @param accountId 账号标识
+     * @param refresher 刷新逻辑
+     * @return 刷新结果
+     */
+    private Mono<GameLibrary> withCredentials(String accountId, Refresher refresher) {
+        return configService.getConfig()
+            .flatMap(config -> {
+                SteamAccount account = config.account(accountId).orElse(null);
+                if (account == null) {
+                    return Mono.error(new RuntimeException("账号不存在: " + accountId));
+                }
+                if (account.steamApiKey().isEmpty()) {
+                    return Mono.error(new RuntimeException("Steam API Key 未配置"));
+                }
+                if (account.steamId().isEmpty()) {
+                    return Mono.error(new RuntimeException("Steam ID 未配置"));
+                }
+                return refresher.refresh(account, config);
+            });
+    }
+
+    /**
+     * 合并同一账号的并发刷新
+     * <p>已有完整刷新时共享其结果；已有增量刷新时等待其结束（忽略其结果和错误）后再执行完整刷新，
+     * 并取代它成为该账号进行中的刷新。</p>
+     *
+     * @param account 账号
+     * @param config  插件配置
+     * @return 共享的刷新结果
+     */
+    private Mono<GameLibrary> singleFlight(SteamAccount account, SteamViewConfig config) {
+        return Mono.defer(() -> inFlightRefreshes.compute(account.id(), (id, current) -> {
+            if (current != null && current.full()) {
+                return current;
+            }
+            Mono<Void> previous = current == null ? Mono.empty()
+                : current.result().onErrorResume(e -> Mono.empty()).then();
+            log.info("开始刷新账号 {}（Steam ID {}）的游戏数据", id, account.steamId());
+            Mono<GameLibrary> result = previous
+                .then(limited(Mono.defer(() -> fullRefresh(account, config))))
+                .doFinally(signal -> finish(id, true))
+                .cache();
+            return new Flight(result, true);
+        }).result());
+    }
+
+    /**
+     * 将刷新放入队列，在并发数量低于上限时执行
+     * <p>刷新开始执行后即使调用方取消订阅也会执行完毕，结果由进行中刷新表共享。</p>
+     *
+     * @param refresh 刷新流程
+     * @return 刷新结果
+     */
+    private Mono<GameLibrary> limited(Mono<GameLibrary> refresh) {
+        return Mono.create(sink -> enqueue(refresh
+            .doOnSuccess(sink::success)
+            .doOnError(sink::error)
+            .onErrorResume(e -> Mono.empty())
+            .then()));
+    }
+
+    /**
+     * 提交刷新任务；多个线程可能同时提交，提交需要串行化
+     */
+    private synchronized void enqueue(Mono<Void> task) {
+        refreshQueue.emitNext(task, Sinks.EmitFailureHandler.FAIL_FAST);
+    }
+
+    /**
+     * 执行完整刷新，不经过进行中刷新表
+     *
+     * @param account 账号
+     * @param config  插件配置
+     * @return 游戏数据
+     */
+    private Mono<GameLibrary> fullRefresh(SteamAccount account, SteamViewConfig config) {
+        return reportProgress(account.id(), fetchFromSteamApi(account, config))
+            .doOnSubscribe(subscription -> lastAttempted.put(account.id(), Instant.now()))
+            .doOnSuccess(result -> retryAfter.remove(account.id()))
+            .doOnError(e -> retryAfter.put(account.id(), Instant.now().plus(FAILURE_BACKOFF)));
+    }
+
+    /**
+     * 刷新结束时移除进行中的刷新；增量刷新已被完整刷新取代时保留完整刷新
+     *
+     * @param accountId 账号标识
+     * @param full      结束的是否为完整刷新
+     */
+    private void finish(String accountId, boolean full) {
+        inFlightRefreshes.computeIfPresent(accountId, (id, current) -> current.full() == full ? null : current);
+    }
+
+    /**
+     * 广播刷新的开始和结果
+     *
+     * @param accountId 账号标识
+     * @param refresh   刷新流程
+     * @return 刷新结果
+     */
+    private Mono<GameLibrary> reportProgress(String accountId, Mono<GameLibrary> refresh) {
+        return refresh
+            .doOnSubscribe(subscription -> progress.started(accountId))
+            .doOnSuccess(result -> progress.completed(accountId))
+            .doOnError(e -> progress.failed(accountId, e));
+    }
+
+    /**
+     * 记录刷新阶段的耗时，进入阶段时广播
+     *
+     * @param accountId 账号标识
+     * @param phase     阶段名称
+     * @param stage     阶段
+     * @return 阶段结果
+     */
+    private <T> Mono<T> timePhase(String accountId, String phase, Mono<T> stage) {
+        return metrics.timePhase(phase, stage)
+            .doOnSubscribe(subscription -> progress.phase(accountId, phase));
+    }
+
+    /**
+     * 从 Steam API 获取游戏数据
+     *
+     * @param account 账号
+     * @param config  插件配置
+     * @return 游戏库快照
+     */
+    private Mono<GameLibrary> fetchFromSteamApi(SteamAccount account, SteamViewConfig config) {
+        log.info("从 Steam API 获取账号 {} 的游戏数据", account.id());
+
+        // 同时获取拥有的游戏和最近游玩的游戏（包括家庭共享）
+        return Mono.zip(
+            timePhase(account.id(), SteamViewMetrics.PHASE_OWNED_GAMES,
+                steamApiService.getOwnedGames(account.steamApiKey(), account.steamId())),
+            timePhase(account.id(), SteamViewMetrics.PHASE_RECENT_GAMES,
+                steamApiService.getRecentlyPlayedGames(account.steamApiKey(), account.steamId()))
+        ).flatMap(tuple -> {
+            List<Game> allGames = mergeGames(tuple.getT1(), tuple.getT2());
+            log.info("合并后共 {} 个游戏（包括家庭共享）", allGames.size());
+
+            return processGames(account.id(), allGames, config)
+                // 保存到缓存
+                .flatMap(library -> saveCachedGames(account.id(), library));
+        });
+    }
+
+    /**
+     * 合并数据：以拥有的游戏为基础，补充最近游玩的游戏（包括家庭共享）
+     *
+     * @param ownedGames          拥有的游戏
+     * @param recentlyPlayedGames 最近游玩的游戏
+     * @return 合并后的游戏列表
+     */
+    static List<Game> mergeGames(List<Game> ownedGames, List<Game> recentlyPlayedGames) {
+        Map<String, Game> allGamesMap = new LinkedHashMap<>();
+
+        // 先添加拥有的游戏
+        for (Game game : ownedGames) {
+            allGamesMap.put(game.appId(), game);
+        }
+
+        // 补充最近游玩的游戏（包括家庭共享游戏）
+        for (Game game : recentlyPlayedGames) {
+            allGamesMap.putIfAbsent(game.appId(), game);
+        }
+
+        return new ArrayList<>(allGamesMap.values());
+    }
+
+    /**
+     * 跳过隐藏的游戏
+     *
+     * @param rawGames 原始游戏数据
+     * @param config   插件配置
+     * @return 未隐藏的游戏
+     */
+    static List<Game> visibleGames(List<Game> rawGames, SteamViewConfig config) {
+        return rawGames.stream()
+            .filter(game -> !config.isHidden(game.appId()))
+            .toList();
+    }
+
+    /**
+     * 获取最近游玩的游戏，在缓存快照上更新时长和最后游玩时间
+     * <p>最近游玩列表中的游戏更新时长；不在列表中但两周时长不为 0 的游戏两周时长清零；
+     * 不在游戏库中的游戏（新购买或家庭共享）追加到游戏库。</p>
+     *
+     * @param library 缓存的游戏库
+     * @param account 账号
+     * @param config  插件配置
+     * @return 更新后的游戏库快照
+     */
+    private Mono<GameLibrary> fetchRecentFromSteamApi(GameLibrary library, SteamAccount account,
+                                                      SteamViewConfig config) {
+        return timePhase(account.id(), SteamViewMetrics.PHASE_RECENT_GAMES,
+                steamApiService.getRecentlyPlayedGames(account.steamApiKey(), account.steamId()))
+            .flatMap(recentlyPlayedGames -> {
+                long now = Instant.now().getEpochSecond();
+                Map<String, Game> recentGames = new HashMap<>();
+                for (Game game : recentlyPlayedGames) {
+                    if (!config.isHidden(game.appId())) {
+                        recentGames.put(game.appId(), game);
+                    }
+                }
+
+                List<Game> games = new ArrayList<>(library.games().size() + recentGames.size());
+                int changed = 0;
+                for (Game game : library.games()) {
+                    if (config.isHidden(game.appId())) {
+                        changed++;
+                        continue;
+                    }
+                    Game recent = recentGames.remove(game.appId());
+                    Game patched = recent == null ? expireTwoWeekTime(game) : patchPlaytime(game, recent, now);
+                    if (patched != game) {
+                        changed++;
+                    }
+                    games.add(patched);
+                }
+                int changedCount = changed;
+
+                List<Game> addedGames = List.copyOf(recentGames.values());
+                return localizeNames(account.id(), addedGames)
+                    .map(localizedGames -> {
+                        games.addAll(localizedGames);
+                        log.info("增量刷新完成：更新 {} 个游戏，新增 {} 个游戏", changedCount, localizedGames.size());
+                        return GameLibrary.of(games, Instant.now(), library.lastFullRefresh());
+                    });
+            })
+            .flatMap(updated -> saveCachedGames(account.id(), updated));
+    }
+
+    /**
+     * 保存游戏库到缓存
+     *
+     * @param accountId 账号标识
+     * @param library   游戏库快照
+     * @return 保存后的游戏库快照
+     */
+    private Mono<GameLibrary> saveCachedGames(String accountId, GameLibrary library) {
+        return timePhase(accountId, SteamViewMetrics.PHASE_SAVE, gameCacheService.saveCachedGames(accountId, library))
+            .thenReturn(library);
+    }
+
+    /**
+     * 用最近游玩数据更新游戏时长
+     * <p>最近游玩接口不返回最后游玩时间，总时长增加时以本次刷新时间作为最后游玩时间。</p>
+     *
+     * @param cached 缓存中的游戏
+     * @param recent 最近游玩数据
+     * @param now    本次刷新时间（epoch 秒）
+     * @return 更新后的游戏，无变化时返回原对象
+     */
+    private static Game patchPlaytime(Game cached, Game recent, long now) {
+        long rtimeLastPlayed = recent.rtimeLastPlayed() > 0 ? recent.rtimeLastPlayed()
+            : recent.totalTime() > cached.totalTime() ? now
+            : cached.rtimeLastPlayed();
+        if (recent.totalTime() == cached.totalTime()
+            && recent.twoWeekTime() == cached.twoWeekTime()
+            && rtimeLastPlayed == cached.rtimeLastPlayed()) {
+            return cached;
+        }
+        return cached.withPlaytime(recent.totalTime(), recent.twoWeekTime(), rtimeLastPlayed);
+    }
+
+    /**
+     * 不在最近游玩列表中的游戏两周时长清零
+     *
+     * @param cached 缓存中的游戏
+     * @return 更新后的游戏，无变化时返回原对象
+     */
+    private static Game expireTwoWeekTime(Game cached) {
+        return cached.twoWeekTime() == 0 ? cached
+            : cached.withPlaytime(cached.totalTime(), 0, cached.rtimeLastPlayed());
+    }
+
+    /**
+     * 处理游戏数据：过滤隐藏游戏、替换本地化名称并计算统计数据
+     *
+     * @param accountId 账号标识
+     * @param rawGames  原始游戏数据
+     * @param config    插件配置
+     * @return 游戏库快照
+     */
+    private Mono<GameLibrary> processGames(String accountId, List<Game> rawGames, SteamViewConfig config) {
+        return localizeNames(accountId, visibleGames(rawGames, config))
+            .map(localizedGames -> GameLibrary.of(localizedGames, Instant.now()));
+    }
+
+    /**
+     * 替换为本地化名称，只为字典中不存在或已过期的游戏查询
+     *
+     * @param accountId 账号标识，用于广播查询进度
+     * @param games     游戏列表
+     * @return 替换名称后的游戏列表，查询失败时保留原名称
+     */
+    private Mono<List<Game>> localizeNames(String accountId, List<Game> games) {
+        if (games.isEmpty()) {
+            return Mono.just(games);
+        }
+        List<String> appIds = games.stream()
+            .map(Game::appId)
+            .toList();
+        return timePhase(accountId, SteamViewMetrics.PHASE_LOCALIZED_NAMES,
+                localizedNameService.getLocalizedNames(appIds, (completed, total) -> progress.progress(accountId,
+                    SteamViewMetrics.PHASE_LOCALIZED_NAMES, completed, total)))
+            .map(localizedNames -> games.stream()
+                .map(game -> {
+                    String localizedName = localizedNames.get(game.appId());
+                    return localizedName == null || localizedName.isEmpty()
+                        ? game
+                        : game.withLocalizedName(localizedName);
+                })
+                .toList())
+            .onErrorReturn(games); // 失败时保留原名称
+    }
+
+    /**
+     * 进行中的刷新
+     *
+     * @param result 共享的刷新结果
+     * @param full   是否为完整刷新
+     */
+    private record Flight(Mono<GameLibrary> result, boolean full) {
+    }
+
+    /**
+     * 使用已校验凭据执行的刷新逻辑
+     */
+    @FunctionalInterface
+    private interface Refresher {
+        Mono<GameLibrary> refresh(SteamAccount account, SteamViewConfig config);
+    }
+}
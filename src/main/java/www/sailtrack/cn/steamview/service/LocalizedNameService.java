@@ -0,0 +1,263 @@
+package www.sailtrack.cn.steamview.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 游戏本地化名称字典服务
+ * <p>持久化 appId 到本地化名称的映射，每个条目带有独立的过期时间，
+ * 商店返回 {@code success:false} 的游戏也会被记录（负缓存），刷新时只查询新游戏或已过期的条目。</p>
+ * <p>保存时清除本次未用到的过期条目：已离开游戏库的游戏不再被查询，其条目最迟在有效期后清除；
+ * 条目数超过 {@link #MAX_ENTRIES} 时再按过期时间淘汰最早过期的条目，字典不会无限增长。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class LocalizedNameService {
+
+    public static final String NAME_CACHE_RESOURCE_NAME = "game-name-cache";
+    private static final String NAME_DATA_KEY = "names";
+
+    /**
+     * 成功解析的名称有效期
+     */
+    private static final Duration NAME_TTL = Duration.ofDays(30);
+
+    /**
+     * 无本地化名称（负缓存）的有效期
+     */
+    private static final Duration MISSING_NAME_TTL = Duration.ofDays(7);
+
+    /**
+     * 本地化名称查询的最大并发数
+     */
+    private static final int LOOKUP_CONCURRENCY = 10;
+
+    /**
+     * 字典最多保存的条目数
+     */
+    static final int MAX_ENTRIES = 20000;
+
+    private final SteamApiService steamApiService;
+    private final ReactiveExtensionClient extensionClient;
+    private final SteamViewMetrics metrics;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, NameEntry> dictionary = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public LocalizedNameService(SteamApiService steamApiService, ReactiveExtensionClient extensionClient,
+                                SteamViewMetrics metrics) {
+        this.steamApiService = steamApiService;
+        this.extensionClient = extensionClient;
+        this.metrics = metrics;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * 获取游戏的本地化名称，只对字典中不存在或已过期的游戏请求商店 API
+     *
+     * @param appIds   游戏 App ID 列表
+     * @param progress 查询进度，总数为需要请求商店 API 的游戏数，字典全部命中时不报告
+     * @return appId 到本地化名称的映射，没有本地化名称的游戏不包含在内
+     */
+    public Mono<Map<String, String>> getLocalizedNames(Collection<String> appIds, LookupProgress progress) {
+        return ensureLoaded()
+            .then(Mono.defer(() -> {
+                long now = Instant.now().getEpochSecond();
+                List<String> pending = appIds.stream()
+                    .filter(appId -> {
+                        NameEntry entry = dictionary.get(appId);
+                        return entry == null || entry.expiresAt() <= now;
+                    })
+                    .toList();
+
+                log.info("本地化名称字典命中 {} 个，需要查询 {} 个", appIds.size() - pending.size(), pending.size());
+
+                AtomicInteger completed = new AtomicInteger();
+                return Flux.fromIterable(pending)
+                    .flatMap(appId -> lookup(appId)
+                        .doFinally(signal -> progress.onProgress(completed.incrementAndGet(), pending.size())),
+                        LOOKUP_CONCURRENCY)
+                    .count()
+                    .flatMap(updated -> {
+                        // 本次查询的游戏即使查询失败也保留过期条目，作为原有名称继续使用
+                        int removed = prune(dictionary, Set.copyOf(appIds), Instant.now().getEpochSecond(),
+                            MAX_ENTRIES);
+                        if (removed > 0) {
+                            log.info("已清除 {} 个过期或超出上限的本地化名称", removed);
+                        }
+                        return updated > 0 || removed > 0 ? saveDictionary() : Mono.empty();
+                    })
+                    .then(Mono.fromSupplier(() -> {
+                        Map<String, String> names = new HashMap<>();
+                        for (String appId : appIds) {
+                            NameEntry entry = dictionary.get(appId);
+                            if (entry != null && entry.name() != null) {
+                                names.put(appId, entry.name());
+                            }
+                        }
+                        return names;
+                    }));
+            }));
+    }
+
+    /**
+     * 查询单个游戏的本地化名称并写入字典，请求失败时保留原有条目且不做负缓存
+     *
+     * @param appId 游戏 App ID
+     * @return 写入的条目
+     */
+    private Mono<NameEntry> lookup(String appId) {
+        return metrics.trackAppDetails(steamApiService.getLocalizedGameName(appId))
+            .map(name -> new NameEntry(name, expiresAt(NAME_TTL)))
+            .defaultIfEmpty(new NameEntry(null, expiresAt(MISSING_NAME_TTL)))
+            .doOnNext(entry -> dictionary.put(appId, entry))
+            .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * 计算过期时间，附加随机抖动避免大量条目同时过期
+     *
+     * @param ttl 有效期
+     * @return 过期时间（epoch 秒）
+     */
+    private long expiresAt(Duration ttl) {
+        long jitter = ThreadLocalRandom.current().nextLong(ttl.toSeconds() / 5 + 1);
+        return Instant.now().getEpochSecond() + ttl.toSeconds() - jitter;
+    }
+
+    /**
+     * 清除过期条目，条目数仍超过上限时按过期时间淘汰最早过期的条目
+     *
+     * @param entries 字典
+     * @param keep    保留的 App ID，即使已过期也不清除
+     * @param now     当前时间（epoch 秒）
+     * @param max     最大条目数
+     * @return 清除的条目数
+     */
+    static int prune(Map<String, NameEntry> entries, Set<String> keep, long now, int max) {
+        int before = entries.size();
+        entries.entrySet().removeIf(entry -> entry.getValue().expiresAt() <= now && !keep.contains(entry.getKey()));
+        int excess = entries.size() - max;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                .filter(entry -> !keep.contains(entry.getKey()))
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+        }
+        return before - entries.size();
+    }
+
+    /**
+     * 首次使用时从扩展存储加载字典
+     *
+     * @return 加载结果
+     */
+    private Mono<Void> ensureLoaded() {
+        if (loaded) {
+            return Mono.empty();
+        }
+        return extensionClient.fetch(ConfigMap.class, NAME_CACHE_RESOURCE_NAME)
+            .doOnNext(configMap -> {
+                String jsonData = configMap.getData() == null ? null : configMap.getData().get(NAME_DATA_KEY);
+                if (jsonData == null || jsonData.isEmpty()) {
+                    return;
+                }
+                try {
+                    Map<String, NameEntry> entries = objectMapper.readValue(
+                        jsonData,
+                        new TypeReference<Map<String, NameEntry>>() {}
+                    );
+                    entries.forEach(dictionary::putIfAbsent);
+                    log.info("已加载 {} 个本地化名称", entries.size());
+                } catch (Exception e) {
+                    log.error("读取本地化名称字典失败", e);
+                }
+            })
+            .doOnSuccess(v -> loaded = true)
+            .onErrorResume(e -> {
+                log.error("获取本地化名称字典失败", e);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * 保存字典到扩展存储
+     *
+     * @return 保存结果
+     */
+    private Mono<Void> saveDictionary() {
+        try {
+            String jsonData = objectMapper.writeValueAsString(Map.copyOf(dictionary));
+            Map<String, String> dataMap = new HashMap<>();
+            dataMap.put(NAME_DATA_KEY, jsonData);
+
+            return extensionClient.fetch(ConfigMap.class, NAME_CACHE_RESOURCE_NAME)
+                .flatMap(configMap -> {
+                    configMap.setData(dataMap);
+                    return extensionClient.update(configMap);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    ConfigMap configMap = new ConfigMap();
+                    Metadata metadata = new Metadata();
+                    metadata.setName(NAME_CACHE_RESOURCE_NAME);
+                    configMap.setMetadata(metadata);
+                    configMap.setData(dataMap);
+                    return extensionClient.create(configMap);
+                }))
+                .doOnSuccess(v -> log.info("本地化名称字典已保存，共 {} 个条目", dictionary.size()))
+                .onErrorResume(e -> {
+                    // 保存失败不影响本次刷新，内存中的字典仍然有效
+                    log.error("保存本地化名称字典失败", e);
+                    return Mono.empty();
+                })
+                .then();
+        } catch (Exception e) {
+            log.error("序列化本地化名称字典失败", e);
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * 字典条目
+     *
+     * @param name      本地化名称，商店无此游戏时为 null
+     * @param expiresAt 过期时间（epoch 秒）
+     */
+    record NameEntry(String name, long expiresAt) {
+    }
+
+    /**
+     * 本地化名称查询进度
+     */
+    @FunctionalInterface
+    public interface LookupProgress {
+        void onProgress(int completed, int total);
+    }
+}
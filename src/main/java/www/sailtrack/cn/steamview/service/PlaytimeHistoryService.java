@@ -0,0 +1,375 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import www.sailtrack.cn.steamview.event.GameLibraryUpdatedEvent;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.HistoryResolution;
+import www.sailtrack.cn.steamview.model.PlaytimeHistory;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 游戏时长历史服务
+ * <p>每次游戏库更新后，为时长发生变化的游戏追加数据点。数据按分段保存在 ConfigMap 中：
+ * 日分段（{@code game-history-d-yyyyMMdd}）保存当天的原始数据点，
+ * 月分段（{@code game-history-m-yyyyMM}）保存每天的最后一个数据点；
+ * 每个分段以 App ID 为键保存 {@link PlaytimeSeries} 编码的序列，超过保留期限的分段会被删除。</p>
+ * <p>默认账号以外的账号在前缀中加入账号标识（如 {@code game-history-<账号标识>-d-yyyyMMdd}），
+ * 各账号的历史和写入状态相互独立。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class PlaytimeHistoryService {
+
+    private static final String SEGMENT_PREFIX = "game-history-";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * 日分段保留天数
+     */
+    private static final int DAILY_RETENTION_DAYS = 366;
+
+    /**
+     * 月分段保留月数
+     */
+    private static final int MONTHLY_RETENTION_MONTHS = 60;
+
+    /**
+     * 未指定起始日期时查询的天数
+     */
+    private static final int DEFAULT_HISTORY_DAYS = 30;
+
+    /**
+     * 清理过期分段时向前检查的天数，覆盖插件停用期间未清理的分段
+     */
+    private static final int RETENTION_SWEEP_DAYS = 31;
+
+    private static final int SEGMENT_CONCURRENCY = 4;
+    private static final int MAX_WRITE_RETRIES = 3;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final ReactiveExtensionClient extensionClient;
+
+    /**
+     * 各账号的历史记录状态
+     */
+    private final Map<String, AccountHistory> histories = new ConcurrentHashMap<>();
+
+    public PlaytimeHistoryService(ReactiveExtensionClient extensionClient) {
+        this.extensionClient = extensionClient;
+    }
+
+    @EventListener
+    public void onLibraryUpdated(GameLibraryUpdatedEvent event) {
+        AccountHistory history = history(event.getAccountId());
+        history.pending.set(event.getCurrent());
+        drain(history);
+    }
+
+    /**
+     * 查询游戏时长历史，只读取查询区间涉及的分段
+     * <p>查询区间截断到今天和所选粒度的保留期限之内，因此读取的分段数不超过保留的分段数；
+     * 区间完全在保留期限之外时返回空历史。</p>
+     *
+     * @param accountId  账号标识
+     * @param appId      游戏 App ID
+     * @param from       起始日期（含），为 null 时查询截至结束日期的最近 30 天
+     * @param to         结束日期（含），不能早于起始日期
+     * @param resolution 时间粒度参数，未指定时按查询天数选择
+     * @return 时长历史，起止日期为截断后的区间
+     */
+    public Mono<PlaytimeHistory> getHistory(String accountId, String appId, LocalDate from, LocalDate to,
+                                            String resolution) {
+        LocalDate today = LocalDate.now(ZONE);
+        LocalDate end = to.isAfter(today) ? today : to;
+        LocalDate oldestMonth = today.minusMonths(MONTHLY_RETENTION_MONTHS).withDayOfMonth(1);
+        if (end.isBefore(oldestMonth) || (from != null && from.isAfter(end))) {
+            HistoryResolution historyResolution = HistoryResolution.from(resolution, 0);
+            return Mono.just(new PlaytimeHistory(appId, historyResolution.getValue(), from == null ? end : from, end,
+                List.of()));
+        }
+
+        LocalDate start = from == null ? end.minusDays(DEFAULT_HISTORY_DAYS - 1) : from;
+        HistoryResolution historyResolution = HistoryResolution.from(resolution,
+            ChronoUnit.DAYS.between(start, end) + 1);
+        LocalDate oldest = historyResolution == HistoryResolution.DAY
+            ? oldestMonth
+            : today.minusDays(DAILY_RETENTION_DAYS);
+        if (start.isBefore(oldest)) {
+            start = oldest;
+        }
+        if (start.isAfter(end)) {
+            return Mono.just(new PlaytimeHistory(appId, historyResolution.getValue(), start, end, List.of()));
+        }
+
+        AccountHistory history = history(accountId);
+        LocalDate rangeStart = start;
+        Flux<PlaytimeHistory.Point> points = historyResolution == HistoryResolution.DAY
+            ? readMonthlyPoints(history, appId, rangeStart, end)
+            : readDailyPoints(history, appId, rangeStart, end);
+        return points.collectList()
+            .map(list -> new PlaytimeHistory(appId, historyResolution.getValue(), rangeStart, end, list));
+    }
+
+    private AccountHistory history(String accountId) {
+        return histories.computeIfAbsent(accountId, AccountHistory::new);
+    }
+
+    /**
+     * 读取日分段，调用方保证区间在日分段的保留期限之内
+     */
+    private Flux<PlaytimeHistory.Point> readDailyPoints(AccountHistory history, String appId, LocalDate from,
+                                                        LocalDate to) {
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        return Flux.fromIterable(days)
+            .flatMapSequential(day -> readSeries(history.dailySegmentName(day), appId)
+                .flatMapIterable(series -> {
+                    ZonedDateTime dayStart = day.atStartOfDay(ZONE);
+                    List<PlaytimeHistory.Point> result = new ArrayList<>(series.size());
+                    for (int i = 0; i < series.size(); i++) {
+                        result.add(new PlaytimeHistory.Point(dayStart.plusSeconds(series.offset(i)).toInstant(),
+                            series.totalTime(i), series.twoWeekTime(i)));
+                    }
+                    return result;
+                }), SEGMENT_CONCURRENCY);
+    }
+
+    /**
+     * 读取月分段，调用方保证区间在月分段的保留期限之内
+     */
+    private Flux<PlaytimeHistory.Point> readMonthlyPoints(AccountHistory history, String appId, LocalDate from,
+                                                          LocalDate to) {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return Flux.fromIterable(months)
+            .flatMapSequential(month -> readSeries(history.monthlySegmentName(month), appId)
+                .flatMapIterable(series -> {
+                    List<PlaytimeHistory.Point> result = new ArrayList<>(series.size());
+                    for (int i = 0; i < series.size(); i++) {
+                        LocalDate day = month.atDay((int) series.offset(i) + 1);
+                        if (!day.isBefore(from) && !day.isAfter(to)) {
+                            result.add(new PlaytimeHistory.Point(day.atStartOfDay(ZONE).toInstant(),
+                                series.totalTime(i), series.twoWeekTime(i)));
+                        }
+                    }
+                    return result;
+                }), SEGMENT_CONCURRENCY);
+    }
+
+    private Mono<PlaytimeSeries> readSeries(String segmentName, String appId) {
+        return extensionClient.fetch(ConfigMap.class, segmentName)
+            .mapNotNull(configMap -> configMap.getData() == null ? null : configMap.getData().get(appId))
+            .map(PlaytimeSeries::decode);
+    }
+
+    /**
+     * 依次记录等待中的游戏库，同一账号同时只有一次写入在进行
+     *
+     * @param history 账号的历史记录状态
+     */
+    private void drain(AccountHistory history) {
+        if (!history.writing.compareAndSet(false, true)) {
+            return;
+        }
+        GameLibrary library = history.pending.getAndSet(null);
+        if (library == null) {
+            history.writing.set(false);
+            return;
+        }
+        record(history, library)
+            .onErrorResume(e -> {
+                log.warn("记录账号 {} 的游戏时长历史失败: {}", history.accountId, e.getMessage());
+                return Mono.empty();
+            })
+            .doFinally(signal -> {
+                history.writing.set(false);
+                if (history.pending.get() != null) {
+                    drain(history);
+                }
+            })
+            .subscribe();
+    }
+
+    /**
+     * 为时长发生变化的游戏追加数据点
+     * <p>插件启动后尚无记录时，只记录两周内游玩过的游戏，其余游戏的时长不会变化。</p>
+     *
+     * @param history 账号的历史记录状态
+     * @param library 游戏库快照
+     * @return 记录结果
+     */
+    private Mono<Void> record(AccountHistory history, GameLibrary library) {
+        if (library.lastUpdated() == null) {
+            return Mono.empty();
+        }
+        List<Game> changed = new ArrayList<>();
+        for (Game game : library.games()) {
+            long[] last = history.lastRecorded.get(game.appId());
+            boolean isChanged = last == null
+                ? game.twoWeekTime() > 0
+                : last[0] != game.totalTime() || last[1] != game.twoWeekTime();
+            if (isChanged) {
+                changed.add(game);
+            }
+        }
+
+        ZonedDateTime time = library.lastUpdated().atZone(ZONE);
+        LocalDate day = time.toLocalDate();
+        Mono<Void> write = changed.isEmpty() ? Mono.empty()
+            : writeSegment(history.dailySegmentName(day), changed, time.toLocalTime().toSecondOfDay())
+                .then(writeSegment(history.monthlySegmentName(YearMonth.from(day)), changed,
+                    day.getDayOfMonth() - 1))
+                .doOnSuccess(v -> {
+                    for (Game game : changed) {
+                        history.lastRecorded.put(game.appId(), new long[] {game.totalTime(), game.twoWeekTime()});
+                    }
+                    log.debug("已记录账号 {} 的 {} 个游戏的时长历史", history.accountId, changed.size());
+                });
+        return write.then(Mono.defer(() -> sweepExpiredSegments(history, day)));
+    }
+
+    /**
+     * 向分段写入数据点，与序列最后一个数据点相同的游戏跳过
+     *
+     * @param segmentName 分段名称
+     * @param games       游戏
+     * @param offset      分段内的时间偏移
+     * @return 写入结果
+     */
+    private Mono<Void> writeSegment(String segmentName, Collection<Game> games, long offset) {
+        return Mono.defer(() -> extensionClient.fetch(ConfigMap.class, segmentName)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(existing -> {
+                    Map<String, String> data = new HashMap<>();
+                    existing.map(ConfigMap::getData).ifPresent(data::putAll);
+                    boolean modified = false;
+                    for (Game game : games) {
+                        PlaytimeSeries series = PlaytimeSeries.decode(data.get(game.appId()));
+                        if (series.endsWith(game.totalTime(), game.twoWeekTime())) {
+                            continue;
+                        }
+                        if (series.put(offset, game.totalTime(), game.twoWeekTime())) {
+                            data.put(game.appId(), series.encode());
+                            modified = true;
+                        }
+                    }
+                    if (!modified) {
+                        return Mono.<ConfigMap>empty();
+                    }
+                    if (existing.isPresent()) {
+                        ConfigMap configMap = existing.get();
+                        configMap.setData(data);
+                        return extensionClient.update(configMap);
+                    }
+                    ConfigMap configMap = new ConfigMap();
+                    Metadata metadata = new Metadata();
+                    metadata.setName(segmentName);
+                    configMap.setMetadata(metadata);
+                    configMap.setData(data);
+                    return extensionClient.create(configMap);
+                }))
+            .retryWhen(Retry.max(MAX_WRITE_RETRIES)
+                .filter(OptimisticLockingFailureException.class::isInstance))
+            .then();
+    }
+
+    /**
+     * 删除超过保留期限的分段，每天最多执行一次
+     *
+     * @param history 账号的历史记录状态
+     * @param today   当前日期
+     * @return 删除结果
+     */
+    private Mono<Void> sweepExpiredSegments(AccountHistory history, LocalDate today) {
+        if (today.equals(history.lastSweepDay)) {
+            return Mono.empty();
+        }
+        history.lastSweepDay = today;
+
+        List<String> expired = new ArrayList<>();
+        LocalDate dailyCutoff = today.minusDays(DAILY_RETENTION_DAYS);
+        for (int i = 1; i <= RETENTION_SWEEP_DAYS; i++) {
+            expired.add(history.dailySegmentName(dailyCutoff.minusDays(i)));
+        }
+        YearMonth monthlyCutoff = YearMonth.from(today).minusMonths(MONTHLY_RETENTION_MONTHS);
+        for (int i = 1; i <= 12; i++) {
+            expired.add(history.monthlySegmentName(monthlyCutoff.minusMonths(i)));
+        }
+        return Flux.fromIterable(expired)
+            .flatMap(name -> extensionClient.fetch(ConfigMap.class, name)
+                .flatMap(extensionClient::delete)
+                .doOnNext(deleted -> log.info("已删除过期的时长历史分段 {}", name)), SEGMENT_CONCURRENCY)
+            .then();
+    }
+
+    /**
+     * 单个账号的历史记录状态
+     */
+    private static final class AccountHistory {
+
+        private final String accountId;
+        private final String dailySegmentPrefix;
+        private final String monthlySegmentPrefix;
+
+        /**
+         * 每个游戏最后记录的时长（总时长、两周时长）
+         */
+        private final Map<String, long[]> lastRecorded = new ConcurrentHashMap<>();
+
+        /**
+         * 等待记录的最新游戏库，写入期间到达的多次更新只记录最后一次
+         */
+        private final AtomicReference<GameLibrary> pending = new AtomicReference<>();
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        private volatile LocalDate lastSweepDay;
+
+        AccountHistory(String accountId) {
+            this.accountId = accountId;
+            String prefix = SteamAccount.DEFAULT_ID.equals(accountId) ? SEGMENT_PREFIX
+                : SEGMENT_PREFIX + accountId + "-";
+            this.dailySegmentPrefix = prefix + "d-";
+            this.monthlySegmentPrefix = prefix + "m-";
+        }
+
+        String dailySegmentName(LocalDate day) {
+            return dailySegmentPrefix + DAY_FORMAT.format(day);
+        }
+
+        String monthlySegmentName(YearMonth month) {
+            return monthlySegmentPrefix + MONTH_FORMAT.format(month);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package www.sailtrack.cn.steamview.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 单个游戏在一个历史分段内的时长序列
+ * <p>按列编码：时间偏移、总时长、两周时长三列依次保存，每列保存与前一个值的差值，
+ * 时间偏移单调递增使用无符号 varint，时长差值使用 zigzag varint，最后整体 Base64。
+ * 只在时长变化时追加数据点，一个游戏一年的数据通常只有几 KB。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class PlaytimeSeries {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] offsets;
+    private long[] totalTimes;
+    private long[] twoWeekTimes;
+    private int size;
+
+    PlaytimeSeries() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private PlaytimeSeries(int capacity) {
+        offsets = new long[capacity];
+        totalTimes = new long[capacity];
+        twoWeekTimes = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offset(int i) {
+        return offsets[i];
+    }
+
+    long totalTime(int i) {
+        return totalTimes[i];
+    }
+
+    long twoWeekTime(int i) {
+        return twoWeekTimes[i];
+    }
+
+    /**
+     * 判断最后一个数据点是否与给定时长相同
+     */
+    boolean endsWith(long totalTime, long twoWeekTime) {
+        return size > 0 && totalTimes[size - 1] == totalTime && twoWeekTimes[size - 1] == twoWeekTime;
+    }
+
+    /**
+     * 写入数据点，偏移与最后一个数据点相同时覆盖，早于最后一个数据点时忽略
+     *
+     * @return 序列是否变化
+     */
+    boolean put(long offset, long totalTime, long twoWeekTime) {
+        if (size > 0) {
+            long lastOffset = offsets[size - 1];
+            if (offset < lastOffset) {
+                return false;
+            }
+            if (offset == lastOffset) {
+                if (endsWith(totalTime, twoWeekTime)) {
+                    return false;
+                }
+                totalTimes[size - 1] = totalTime;
+                twoWeekTimes[size - 1] = twoWeekTime;
+                return true;
+            }
+        }
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            totalTimes = Arrays.copyOf(totalTimes, capacity);
+            twoWeekTimes = Arrays.copyOf(twoWeekTimes, capacity);
+        }
+        offsets[size] = offset;
+        totalTimes[size] = totalTime;
+        twoWeekTimes[size] = twoWeekTime;
+        size++;
+        return true;
+    }
+
+    String encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + 5 + size * 4);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, size);
+        writeColumn(out, offsets, false);
+        writeColumn(out, totalTimes, true);
+        writeColumn(out, twoWeekTimes, true);
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * 解码序列
+     *
+     * @param data 编码数据，为空时返回空序列
+     * @return 时长序列
+     */
+    static PlaytimeSeries decode(String data) {
+        if (data == null || data.isEmpty()) {
+            return new PlaytimeSeries();
+        }
+        byte[] bytes = Base64.getDecoder().decode(data);
+        int[] position = {0};
+        if (bytes[position[0]++] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的时长序列格式: " + bytes[0]);
+        }
+        int size = (int) readVarint(bytes, position);
+        PlaytimeSeries series = new PlaytimeSeries(Math.max(size, INITIAL_CAPACITY));
+        readColumn(bytes, position, series.offsets, size, false);
+        readColumn(bytes, position, series.totalTimes, size, true);
+        readColumn(bytes, position, series.twoWeekTimes, size, true);
+        series.size = size;
+        return series;
+    }
+
+    private void writeColumn(ByteArrayOutputStream out, long[] column, boolean signed) {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long delta = column[i] - previous;
+            writeVarint(out, signed ? (delta << 1) ^ (delta >> 63) : delta);
+            previous = column[i];
+        }
+    }
+
+    private static void readColumn(byte[] bytes, int[] position, long[] column, int size, boolean signed) {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = readVarint(bytes, position);
+            long delta = signed ? (value >>> 1) ^ -(value & 1) : value;
+            previous += delta;
+            column[i] = previous;
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
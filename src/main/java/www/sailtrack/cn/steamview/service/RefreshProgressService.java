@@ -0,0 +1,103 @@
+package www.sailtrack.cn.steamview.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import www.sailtrack.cn.steamview.event.GameLibraryUpdatedEvent;
+import www.sailtrack.cn.steamview.model.RefreshProgress;
+
+/**
+ * 刷新进度广播
+ * <p>刷新各阶段的进度和快照更新通过一个多播 sink 发布，任意数量的客户端订阅同一个流，
+ * 无需轮询游戏数据接口。没有订阅者时事件直接丢弃，不做重放。</p>
+ * <p>本地化名称等逐个完成的阶段按总数的 2% 为步长发布进度，避免大型游戏库产生过多事件。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class RefreshProgressService {
+
+    /**
+     * 每个订阅者最多缓冲的事件数，消费过慢时丢弃最早的事件
+     */
+    private static final int SUBSCRIBER_BUFFER_SIZE = 256;
+
+    /**
+     * 一个阶段最多发布的进度事件数
+     */
+    private static final int MAX_PROGRESS_EVENTS = 50;
+
+    private final Sinks.Many<RefreshProgress> sink = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * 订阅进度事件
+     *
+     * @param accountId 只接收该账号的事件，为 null 时接收所有账号的事件
+     * @return 事件流
+     */
+    public Flux<RefreshProgress> events(String accountId) {
+        return sink.asFlux()
+            .onBackpressureBuffer(SUBSCRIBER_BUFFER_SIZE, BufferOverflowStrategy.DROP_OLDEST)
+            .filter(event -> accountId == null || accountId.equals(event.accountId()));
+    }
+
+    public void started(String accountId) {
+        emit(RefreshProgress.started(accountId));
+    }
+
+    public void phase(String accountId, String phase) {
+        emit(RefreshProgress.phase(accountId, phase));
+    }
+
+    /**
+     * 发布阶段进度，只在跨过步长或全部完成时发布
+     *
+     * @param accountId 账号标识
+     * @param phase     刷新阶段
+     * @param completed 已完成数量
+     * @param total     总数量
+     */
+    public void progress(String accountId, String phase, int completed, int total) {
+        int step = Math.max(1, total / MAX_PROGRESS_EVENTS);
+        if (completed == total || completed % step == 0) {
+            emit(RefreshProgress.progress(accountId, phase, completed, total));
+        }
+    }
+
+    public void completed(String accountId) {
+        emit(RefreshProgress.completed(accountId));
+    }
+
+    /**
+     * 发布刷新失败事件
+     * <p>事件流对匿名用户开放，只发布错误代码，异常消息（可能包含带 API Key 的请求 URL）只写入日志。</p>
+     *
+     * @param accountId 账号标识
+     * @param error     错误
+     */
+    public void failed(String accountId, Throwable error) {
+        String code = SteamRequestGuard.errorCode(error);
+        log.warn("账号 {} 刷新失败（{}）: {}", accountId, code, error.getMessage());
+        emit(RefreshProgress.failed(accountId, code));
+    }
+
+    @EventListener
+    public void onLibraryUpdated(GameLibraryUpdatedEvent event) {
+        emit(RefreshProgress.snapshotUpdated(event.getAccountId(), event.getCurrent().version()));
+    }
+
+    /**
+     * 发布事件；刷新在多个线程上推进，发布需要串行化
+     */
+    private synchronized void emit(RefreshProgress event) {
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.debug("发布刷新进度事件失败: {}", result);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import www.sailtrack.cn.steamview.event.GameLibraryUpdatedEvent;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.LibraryStats;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * 游戏库统计引擎
+ * <p>游戏库更新时只对发生变化的游戏增减合计、时长分桶和最后游玩日期计数；
+ * 排行在有变化后的首次查询时用容量固定的堆重新计算。最后游玩时间分桶与当前时间有关，查询时按日期计数汇总。</p>
+ * <p>每个账号的统计状态相互独立。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Component
+public class StatsEngine {
+
+    public static final int DEFAULT_TOP = 10;
+    public static final int MAX_TOP = 50;
+
+    /**
+     * 总时长分桶的下界（分钟），第一个桶为没有游戏时长
+     */
+    private static final long[] PLAYTIME_BOUNDS = {0, 1, 60, 600, 3000, 6000, 30000};
+    private static final String[] PLAYTIME_LABELS = {
+        "未游玩", "1 小时以内", "1-10 小时", "10-50 小时", "50-100 小时", "100-500 小时", "500 小时以上"
+    };
+
+    /**
+     * 最后游玩时间分桶的上界（天）
+     */
+    private static final int[] RECENCY_DAYS = {7, 30, 90, 365};
+    private static final String[] RECENCY_LABELS = {"7 天内", "30 天内", "90 天内", "1 年内", "1 年以上", "从未游玩"};
+
+    private static final List<Ranking> RANKINGS = List.of(
+        new Ranking("totalTime", Game::totalTime),
+        new Ranking("twoWeekTime", Game::twoWeekTime),
+        new Ranking("lastPlayed", Game::rtimeLastPlayed)
+    );
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    /**
+     * 各账号的统计状态
+     */
+    private final Map<String, Aggregates> aggregates = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onLibraryUpdated(GameLibraryUpdatedEvent event) {
+        Aggregates state = aggregates(event.getAccountId());
+        synchronized (state) {
+            state.apply(event.getCurrent());
+        }
+    }
+
+    /**
+     * 获取统计数据
+     *
+     * @param accountId 账号标识
+     * @param current   当前游戏库快照，与引擎状态不一致时先同步
+     * @param topLimit  排行数量，为空时使用默认值
+     * @return 统计数据
+     */
+    public LibraryStats stats(String accountId, GameLibrary current, Integer topLimit) {
+        int limit = topLimit == null ? DEFAULT_TOP : Math.max(1, Math.min(topLimit, MAX_TOP));
+        Aggregates state = aggregates(accountId);
+        synchronized (state) {
+            return state.stats(current, limit);
+        }
+    }
+
+    private Aggregates aggregates(String accountId) {
+        return aggregates.computeIfAbsent(accountId, id -> new Aggregates());
+    }
+
+    /**
+     * 单个账号的统计状态
+     */
+    private static final class Aggregates {
+
+        private final Map<String, Game> games = new HashMap<>();
+        private final int[] playtimeCounts = new int[PLAYTIME_BOUNDS.length];
+
+        /**
+         * 按最后游玩日期（epoch 天）计数，不含从未游玩的游戏
+         */
+        private final TreeMap<Long, Integer> lastPlayedDays = new TreeMap<>();
+
+        private GameLibrary library;
+        private long totalTime;
+        private long twoWeekTime;
+        private int twoWeekGames;
+        private int neverLaunchedGames;
+        private Map<String, List<LibraryStats.RankedGame>> top;
+
+        LibraryStats stats(GameLibrary current, int limit) {
+            apply(current);
+            if (top == null) {
+                top = rank();
+            }
+
+            Map<String, List<LibraryStats.RankedGame>> ranked = new LinkedHashMap<>();
+            top.forEach((key, list) -> ranked.put(key, list.subList(0, Math.min(limit, list.size()))));
+
+            int neverPlayed = playtimeCounts[0];
+            int played = games.size() - neverPlayed;
+            return new LibraryStats(library.version(), library.lastUpdated(), games.size(), played, neverPlayed,
+                totalTime, played > 0 ? totalTime / played : 0, twoWeekTime, twoWeekGames, ranked,
+                playtimeBuckets(), recencyBuckets());
+        }
+
+        /**
+         * 同步到新的游戏库，只处理新增、删除和时长变化的游戏
+         */
+        void apply(GameLibrary current) {
+            if (current == library) {
+                return;
+            }
+            boolean changed = false;
+            for (Game game : current.games()) {
+                Game old = games.put(game.appId(), game);
+                if (old != null && sameRawFields(old, game)) {
+                    continue;
+                }
+                if (old != null) {
+                    remove(old);
+                }
+                add(game);
+                changed = true;
+            }
+            if (games.size() > current.games().size()) {
+                Set<String> appIds = new HashSet<>(current.games().size() * 2);
+                for (Game game : current.games()) {
+                    appIds.add(game.appId());
+                }
+                games.values().removeIf(game -> {
+                    if (appIds.contains(game.appId())) {
+                        return false;
+                    }
+                    remove(game);
+                    return true;
+                });
+                changed = true;
+            }
+            library = current;
+            if (changed) {
+                top = null;
+            }
+        }
+
+        private void add(Game game) {
+            update(game, 1);
+        }
+
+        private void remove(Game game) {
+            update(game, -1);
+        }
+
+        private void update(Game game, int delta) {
+            totalTime += delta * game.totalTime();
+            twoWeekTime += delta * game.twoWeekTime();
+            if (game.twoWeekTime() > 0) {
+                twoWeekGames += delta;
+            }
+            playtimeCounts[playtimeBucket(game.totalTime())] += delta;
+            if (game.rtimeLastPlayed() > 0) {
+                long day = Math.floorDiv(game.rtimeLastPlayed() + ZONE.getRules()
+                    .getOffset(Instant.ofEpochSecond(game.rtimeLastPlayed())).getTotalSeconds(), 86400L);
+                lastPlayedDays.merge(day, delta, (a, b) -> a + b == 0 ? null : a + b);
+            } else {
+                neverLaunchedGames += delta;
+            }
+        }
+
+        private static int playtimeBucket(long minutes) {
+            for (int i = PLAYTIME_BOUNDS.length - 1; i > 0; i--) {
+                if (minutes >= PLAYTIME_BOUNDS[i]) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        private List<LibraryStats.Bucket> playtimeBuckets() {
+            List<LibraryStats.Bucket> buckets = new ArrayList<>(PLAYTIME_LABELS.length);
+            for (int i = 0; i < PLAYTIME_LABELS.length; i++) {
+                buckets.add(new LibraryStats.Bucket(PLAYTIME_LABELS[i], playtimeCounts[i]));
+            }
+            return buckets;
+        }
+
+        private List<LibraryStats.Bucket> recencyBuckets() {
+            long today = LocalDate.now(ZONE).toEpochDay();
+            List<LibraryStats.Bucket> buckets = new ArrayList<>(RECENCY_LABELS.length);
+            int counted = 0;
+            for (int i = 0; i < RECENCY_DAYS.length; i++) {
+                int within = lastPlayedDays.tailMap(today - RECENCY_DAYS[i], false).values().stream()
+                    .mapToInt(Integer::intValue)
+                    .sum();
+                buckets.add(new LibraryStats.Bucket(RECENCY_LABELS[i], within - counted));
+                counted = within;
+            }
+            int launched = games.size() - neverLaunchedGames;
+            buckets.add(new LibraryStats.Bucket(RECENCY_LABELS[RECENCY_DAYS.length], launched - counted));
+            buckets.add(new LibraryStats.Bucket(RECENCY_LABELS[RECENCY_DAYS.length + 1], neverLaunchedGames));
+            return buckets;
+        }
+
+        /**
+         * 用容量为 {@link #MAX_TOP} 的最小堆计算各指标排行，值为 0 的游戏不参与排行
+         */
+        private Map<String, List<LibraryStats.RankedGame>> rank() {
+            Map<String, List<LibraryStats.RankedGame>> result = new LinkedHashMap<>();
+            for (Ranking ranking : RANKINGS) {
+                ToLongFunction<Game> metric = ranking.metric();
+                Comparator<Game> order = Comparator.comparingLong(metric)
+                    .thenComparing(Game::appId, Comparator.reverseOrder());
+                PriorityQueue<Game> heap = new PriorityQueue<>(MAX_TOP + 1, order);
+                for (Game game : games.values()) {
+                    if (metric.applyAsLong(game) <= 0) {
+                        continue;
+                    }
+                    if (heap.size() < MAX_TOP) {
+                        heap.add(game);
+                    } else if (order.compare(game, heap.peek()) > 0) {
+                        heap.poll();
+                        heap.add(game);
+                    }
+                }
+                List<Game> sorted = new ArrayList<>(heap);
+                sorted.sort(order.reversed());
+                result.put(ranking.key(), sorted.stream()
+                    .map(game -> new LibraryStats.RankedGame(game.appId(), game.name(), metric.applyAsLong(game)))
+                    .toList());
+            }
+            return result;
+        }
+    }
+
+    private static boolean sameRawFields(Game a, Game b) {
+        return a.totalTime() == b.totalTime()
+            && a.twoWeekTime() == b.twoWeekTime()
+            && a.rtimeLastPlayed() == b.rtimeLastPlayed()
+            && Objects.equals(a.name(), b.name());
+    }
+
+    /**
+     * 排行指标
+     *
+     * @param key    响应中的键
+     * @param metric 指标
+     */
+    private record Ranking(String key, ToLongFunction<Game> metric) {
+    }
+}
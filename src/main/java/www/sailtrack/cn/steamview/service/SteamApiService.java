@@ -3,18 +3,19 @@ package www.sailtrack.cn.steamview.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
 import io.netty.channel.ChannelOption;
+import www.sailtrack.cn.steamview.model.Game;
 
+import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Steam API 服务
@@ -26,10 +27,38 @@ import java.util.Map;
 @Service
 public class SteamApiService {
 
+    /**
+     * 覆盖 Steam 接口地址的系统属性，用于连接本地模拟服务进行测试
+     */
+    private static final String API_BASE_URL_PROPERTY = "steamview.steam.api-base-url";
+    private static final String STORE_BASE_URL_PROPERTY = "steamview.steam.store-base-url";
+    private static final String CDN_BASE_URL_PROPERTY = "steamview.steam.cdn-base-url";
+
+    private static final String DEFAULT_API_BASE_URL = "https://api.steampowered.com";
+    private static final String DEFAULT_STORE_BASE_URL = "https://store.steampowered.com";
+    private static final String DEFAULT_CDN_BASE_URL = "https://cdn.cloudflare.steamstatic.com";
+
+    private static final String COVER_PATH_FORMAT = "/steam/apps/%s/header.jpg";
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final SteamRequestGuard requestGuard;
+    private final SteamViewMetrics metrics;
 
-    public SteamApiService() {
+    private final String apiBaseUrl;
+    private final String storeBaseUrl;
+    private final String cdnBaseUrl;
+
+    public SteamApiService(SteamRequestGuard requestGuard, SteamViewMetrics metrics) {
+        this.requestGuard = requestGuard;
+        this.metrics = metrics;
+        this.apiBaseUrl = baseUrl(API_BASE_URL_PROPERTY, DEFAULT_API_BASE_URL);
+        this.storeBaseUrl = baseUrl(STORE_BASE_URL_PROPERTY, DEFAULT_STORE_BASE_URL);
+        this.cdnBaseUrl = baseUrl(CDN_BASE_URL_PROPERTY, DEFAULT_CDN_BASE_URL);
+        if (!DEFAULT_API_BASE_URL.equals(apiBaseUrl) || !DEFAULT_STORE_BASE_URL.equals(storeBaseUrl)
+            || !DEFAULT_CDN_BASE_URL.equals(cdnBaseUrl)) {
+            log.warn("使用自定义 Steam 接口地址: api={}, store={}, cdn={}", apiBaseUrl, storeBaseUrl, cdnBaseUrl);
+        }
         HttpClient httpClient = HttpClient.create()
             .responseTimeout(Duration.ofSeconds(30))
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000);
@@ -49,16 +78,17 @@ public class SteamApiService {
      */
     public Mono<String> getSteamId(String apiKey, String username) {
         String url = String.format(
-            "https://api.steampowered.com/ISteamUser/ResolveVanityURL/v0001/?key=%s&vanityurl=%s",
-            apiKey, username
+            "%s/ISteamUser/ResolveVanityURL/v0001/?key=%s&vanityurl=%s",
+            apiBaseUrl, apiKey, username
         );
 
         log.info("请求 Steam ID: URL={}", url);
 
-        return webClient.get()
-            .uri(url)
-            .retrieve()
-            .bodyToMono(String.class)
+        return requestGuard.execute(SteamRequestGuard.API_HOST,
+                metrics.timeSteamRequest(SteamViewMetrics.ENDPOINT_RESOLVE_VANITY_URL, webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(String.class)))
             .map(response -> {
                 log.info("Steam API 响应: {}", response);
                 try {
@@ -92,53 +122,51 @@ public class SteamApiService {
      * @param steamId Steam ID
      * @return 游戏列表
      */
-    public Mono<List<Map<String, Object>>> getOwnedGames(String apiKey, String steamId) {
+    public Mono<List<Game>> getOwnedGames(String apiKey, String steamId) {
         String url = String.format(
-            "https://api.steampowered.com/IPlayerService/GetOwnedGames/v0001/?key=%s&steamid=%s&format=json&include_appinfo=true&include_played_free_games=true",
-            apiKey, steamId
+            "%s/IPlayerService/GetOwnedGames/v0001/?key=%s&steamid=%s&format=json&include_appinfo=true&include_played_free_games=true",
+            apiBaseUrl, apiKey, steamId
         );
 
-        return webClient.get()
-            .uri(url)
-            .retrieve()
-            .bodyToMono(String.class)
-            .map(response -> {
-                try {
-                    JsonNode root = objectMapper.readTree(response);
-                    JsonNode responseNode = root.path("response");
-                    JsonNode gamesNode = responseNode.path("games");
-
-                    List<Map<String, Object>> games = new ArrayList<>();
-                    for (JsonNode gameNode : gamesNode) {
-                        Map<String, Object> game = new HashMap<>();
-                        game.put("appId", gameNode.path("appid").asText());
-                        game.put("name", gameNode.path("name").asText());
-                        game.put("imgIconUrl", gameNode.path("img_icon_url").asText());
-                        game.put("imgLogoUrl", gameNode.path("img_logo_url").asText());
-                        game.put("hasCommunityVisibleStats", gameNode.path("has_community_visible_stats").asBoolean());
-                        game.put("playtimeForever", gameNode.path("playtime_forever").asLong());
-                        game.put("playtime2weeks", gameNode.path("playtime_2weeks").asLong());
-                        game.put("rtimeLastPlayed", gameNode.path("rtime_last_played").asLong());
-                        games.add(game);
-                    }
-
-                    return games;
-                } catch (Exception e) {
-                    log.error("解析游戏库响应失败", e);
-                    throw new RuntimeException("Failed to parse games response", e);
-                }
+        return requestGuard.execute(SteamRequestGuard.API_HOST,
+                metrics.timeSteamRequest(SteamViewMetrics.ENDPOINT_OWNED_GAMES, webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    // 流式解析，峰值内存与单个游戏相关而非整个响应
+                    .transform(SteamGameStreamParser::parse)
+                    .collectList()))
+            .onErrorMap(UncheckedIOException.class, e -> {
+                log.error("解析游戏库响应失败", e);
+                return new RuntimeException("Failed to parse games response", e);
             })
             .doOnError(e -> log.error("获取游戏库失败: {}", e.getMessage()));
     }
 
     /**
-     * 获取游戏封面 URL
+     * 获取游戏封面在 Steam CDN 上的 URL
      *
      * @param appId 游戏 App ID
      * @return 封面 URL
      */
     public String getGameCoverUrl(String appId) {
-        return String.format("https://cdn.cloudflare.steamstatic.com/steam/apps/%s/header.jpg", appId);
+        return cdnBaseUrl + String.format(COVER_PATH_FORMAT, appId);
+    }
+
+    /**
+     * 从 Steam CDN 下载游戏封面
+     *
+     * @param appId 游戏 App ID
+     * @return 封面图片；游戏没有封面时为空
+     */
+    public Mono<byte[]> getGameCover(String appId) {
+        return requestGuard.execute(SteamRequestGuard.CDN_HOST,
+                metrics.timeSteamRequest(SteamViewMetrics.ENDPOINT_COVER, webClient.get()
+                    .uri(getGameCoverUrl(appId))
+                    .retrieve()
+                    .bodyToMono(byte[].class)))
+            .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+            .doOnError(e -> log.warn("下载游戏 {} 的封面失败: {}", appId, e.getMessage()));
     }
 
     /**
@@ -148,43 +176,26 @@ public class SteamApiService {
      * @param steamId Steam ID
      * @return 最近游玩的游戏列表
      */
-    public Mono<List<Map<String, Object>>> getRecentlyPlayedGames(String apiKey, String steamId) {
+    public Mono<List<Game>> getRecentlyPlayedGames(String apiKey, String steamId) {
         String url = String.format(
-            "https://api.steampowered.com/IPlayerService/GetRecentlyPlayedGames/v0001/?key=%s&steamid=%s&format=json",
-            apiKey, steamId
+            "%s/IPlayerService/GetRecentlyPlayedGames/v0001/?key=%s&steamid=%s&format=json",
+            apiBaseUrl, apiKey, steamId
         );
 
         log.info("获取最近游玩的游戏: URL={}", url);
 
-        return webClient.get()
-            .uri(url)
-            .retrieve()
-            .bodyToMono(String.class)
-            .map(response -> {
-                try {
-                    JsonNode root = objectMapper.readTree(response);
-                    JsonNode responseNode = root.path("response");
-                    JsonNode gamesNode = responseNode.path("games");
-
-                    List<Map<String, Object>> games = new ArrayList<>();
-                    for (JsonNode gameNode : gamesNode) {
-                        Map<String, Object> game = new HashMap<>();
-                        game.put("appId", gameNode.path("appid").asText());
-                        game.put("name", gameNode.path("name").asText());
-                        game.put("imgIconUrl", gameNode.path("img_icon_url").asText());
-                        game.put("imgLogoUrl", gameNode.path("img_logo_url").asText());
-                        game.put("playtimeForever", gameNode.path("playtime_forever").asLong());
-                        game.put("playtime2weeks", gameNode.path("playtime_2weeks").asLong());
-                        game.put("rtimeLastPlayed", gameNode.path("rtime_last_played").asLong());
-                        games.add(game);
-                    }
-
-                    log.info("获取到 {} 个最近游玩的游戏", games.size());
-                    return games;
-                } catch (Exception e) {
-                    log.error("解析最近游玩游戏响应失败", e);
-                    throw new RuntimeException("Failed to parse recently played games response", e);
-                }
+        return requestGuard.execute(SteamRequestGuard.API_HOST,
+                metrics.timeSteamRequest(SteamViewMetrics.ENDPOINT_RECENTLY_PLAYED_GAMES, webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    // 流式解析，峰值内存与单个游戏相关而非整个响应
+                    .transform(SteamGameStreamParser::parse)
+                    .collectList()))
+            .doOnNext(games -> log.info("获取到 {} 个最近游玩的游戏", games.size()))
+            .onErrorMap(UncheckedIOException.class, e -> {
+                log.error("解析最近游玩游戏响应失败", e);
+                return new RuntimeException("Failed to parse recently played games response", e);
             })
             .doOnError(e -> log.error("获取最近游玩游戏失败: {}", e.getMessage()));
     }
@@ -193,40 +204,53 @@ public class SteamApiService {
      * 获取游戏的本地化名称（中文）
      *
      * @param appId 游戏 App ID
-     * @return 本地化名称，失败返回 null
+     * @return 本地化名称；商店返回 {@code success:false} 时为空，请求或解析失败时返回错误
      */
     public Mono<String> getLocalizedGameName(String appId) {
         String url = String.format(
-            "https://store.steampowered.com/api/appdetails?appids=%s&l=schinese",
-            appId
+            "%s/api/appdetails?appids=%s&l=schinese",
+            storeBaseUrl, appId
         );
 
-        return webClient.get()
-            .uri(url)
-            .retrieve()
-            .bodyToMono(String.class)
-            .map(response -> {
+        return requestGuard.execute(SteamRequestGuard.STORE_HOST,
+                metrics.timeSteamRequest(SteamViewMetrics.ENDPOINT_APP_DETAILS, webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(String.class)))
+            .flatMap(response -> {
                 try {
                     JsonNode root = objectMapper.readTree(response);
                     JsonNode appNode = root.path(appId);
-                    
+
                     if (!appNode.has("success") || !appNode.path("success").asBoolean()) {
-                        return null;
+                        return Mono.<String>empty();
                     }
-                    
+
                     JsonNode dataNode = appNode.path("data");
                     String name = dataNode.path("name").asText();
-                    
+
                     log.debug("获取游戏 {} 的本地化名称: {}", appId, name);
-                    return name;
+                    return Mono.justOrEmpty(name.isEmpty() ? null : name);
                 } catch (Exception e) {
                     log.error("解析游戏 {} 的本地化名称失败", appId, e);
-                    return null;
+                    return Mono.<String>error(new RuntimeException("Failed to parse app details response", e));
                 }
             })
-            .onErrorResume(e -> {
-                log.error("获取游戏 {} 的本地化名称失败: {}", appId, e.getMessage());
-                return Mono.just(null);
-            });
+            .doOnError(e -> log.error("获取游戏 {} 的本地化名称失败: {}", appId, e.getMessage()));
+    }
+
+    /**
+     * 读取接口地址，去掉末尾的斜杠
+     *
+     * @param property     系统属性
+     * @param defaultValue 默认地址
+     * @return 接口地址
+     */
+    private static String baseUrl(String property, String defaultValue) {
+        String value = System.getProperty(property, defaultValue).trim();
+        while (value.endsWith("/")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return value.isEmpty() ? defaultValue : value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,230 @@
+package www.sailtrack.cn.steamview.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import www.sailtrack.cn.steamview.model.Game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Steam 游戏列表流式解析器
+ * <p>使用 Jackson 非阻塞解析器逐块解析 {@code GetOwnedGames} / {@code GetRecentlyPlayedGames} 的响应，
+ * 每解析完一个游戏对象立即产出 {@link Game}，不保留完整的响应字符串或 JSON 树。</p>
+ * <p>解析器有状态，每个响应使用一个新实例，非线程安全。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+public final class SteamGameStreamParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 游戏对象在 {@code {"response":{"games":[{...}]}}} 中的嵌套深度
+     */
+    private static final int GAME_DEPTH = 4;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private byte[] scratch = new byte[8192];
+    private int depth;
+    private boolean inResponse;
+    private boolean inGames;
+    private String fieldName;
+
+    private boolean inGame;
+    private String appId;
+    private String name;
+    private long playtimeForever;
+    private long playtime2weeks;
+    private long rtimeLastPlayed;
+
+    public SteamGameStreamParser() throws IOException {
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * 将响应体数据流解析为游戏流
+     *
+     * @param body 响应体数据流
+     * @return 游戏流，JSON 格式错误时以 {@link UncheckedIOException} 结束
+     */
+    public static Flux<Game> parse(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            SteamGameStreamParser streamParser;
+            try {
+                streamParser = new SteamGameStreamParser();
+            } catch (IOException e) {
+                return Flux.error(new UncheckedIOException(e));
+            }
+            return body
+                .concatMapIterable(buffer -> {
+                    try {
+                        return streamParser.feed(buffer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .concatWith(Flux.defer(() -> {
+                    try {
+                        return Flux.fromIterable(streamParser.endOfInput());
+                    } catch (IOException e) {
+                        return Flux.error(new UncheckedIOException(e));
+                    }
+                }))
+                .doFinally(signal -> streamParser.close());
+        });
+    }
+
+    /**
+     * 输入一块数据
+     *
+     * @param buffer 数据块
+     * @return 本块数据中解析完成的游戏
+     * @throws IOException JSON 格式错误
+     */
+    public List<Game> feed(DataBuffer buffer) throws IOException {
+        int length = buffer.readableByteCount();
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        buffer.read(scratch, 0, length);
+        return feed(scratch, 0, length);
+    }
+
+    /**
+     * 输入一块数据
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 本块数据中解析完成的游戏
+     * @throws IOException JSON 格式错误
+     */
+    public List<Game> feed(byte[] data, int offset, int length) throws IOException {
+        if (length == 0) {
+            return List.of();
+        }
+        feeder.feedInput(data, offset, offset + length);
+        return drain();
+    }
+
+    /**
+     * 标记输入结束
+     *
+     * @return 剩余解析完成的游戏
+     * @throws IOException JSON 格式错误或数据不完整
+     */
+    public List<Game> endOfInput() throws IOException {
+        feeder.endOfInput();
+        List<Game> games = drain();
+        if (depth != 0) {
+            throw new IOException("Unexpected end of Steam games response");
+        }
+        return games;
+    }
+
+    /**
+     * 释放解析器
+     */
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // 关闭非阻塞解析器不会产生 I/O
+        }
+    }
+
+    private List<Game> drain() throws IOException {
+        List<Game> games = List.of();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            Game game = handle(token);
+            if (game != null) {
+                if (games.isEmpty()) {
+                    games = new ArrayList<>();
+                }
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private Game handle(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT -> {
+                depth++;
+                if (depth == 2 && "response".equals(fieldName)) {
+                    inResponse = true;
+                } else if (inGames && depth == GAME_DEPTH) {
+                    startGame();
+                }
+            }
+            case END_OBJECT -> {
+                Game game = null;
+                if (inGame && depth == GAME_DEPTH) {
+                    game = Game.of(appId, name, playtimeForever, playtime2weeks, rtimeLastPlayed);
+                    inGame = false;
+                } else if (inResponse && depth == 2) {
+                    inResponse = false;
+                }
+                depth--;
+                return game;
+            }
+            case START_ARRAY -> {
+                depth++;
+                if (inResponse && depth == GAME_DEPTH - 1 && "games".equals(fieldName)) {
+                    inGames = true;
+                }
+            }
+            case END_ARRAY -> {
+                if (inGames && depth == GAME_DEPTH - 1) {
+                    inGames = false;
+                }
+                depth--;
+            }
+            case FIELD_NAME -> fieldName = parser.currentName();
+            default -> {
+                if (inGame && depth == GAME_DEPTH && token.isScalarValue()) {
+                    readGameField();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void startGame() {
+        inGame = true;
+        appId = null;
+        name = "";
+        playtimeForever = 0;
+        playtime2weeks = 0;
+        rtimeLastPlayed = 0;
+    }
+
+    private void readGameField() throws IOException {
+        switch (fieldName) {
+            case "appid" -> appId = parser.getValueAsString();
+            case "name" -> name = parser.getValueAsString("");
+            case "playtime_forever" -> playtimeForever = parser.getValueAsLong();
+            case "playtime_2weeks" -> playtime2weeks = parser.getValueAsLong();
+            case "rtime_last_played" -> rtimeLastPlayed = parser.getValueAsLong();
+            default -> {
+                // 其他字段不需要
+            }
+        }
+    }
+}
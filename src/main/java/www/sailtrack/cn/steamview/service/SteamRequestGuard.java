@@ -0,0 +1,199 @@
+package www.sailtrack.cn.steamview.service;
+
+import io.netty.handler.timeout.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Steam 请求保护
+ * <p>为每个主机提供自适应令牌桶限流、带抖动的指数退避重试（仅用于幂等的 GET 请求）和熔断器。
+ * 熔断器打开时请求立即失败，刷新不会等待完整的超时时间，缓存中的旧数据继续可用。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class SteamRequestGuard {
+
+    public static final String API_HOST = "api.steampowered.com";
+    public static final String STORE_HOST = "store.steampowered.com";
+    public static final String CDN_HOST = "cdn.cloudflare.steamstatic.com";
+
+    private static final int MAX_RETRIES = 3;
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(500);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+
+    /**
+     * 429 响应未携带 {@code Retry-After} 时的默认暂停时长
+     */
+    private static final Duration DEFAULT_THROTTLE_PAUSE = Duration.ofSeconds(10);
+    private static final Duration MAX_THROTTLE_PAUSE = Duration.ofMinutes(5);
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final Duration OPEN_DURATION = Duration.ofMinutes(1);
+
+    private final Map<String, HostGuard> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * 在限流、重试和熔断保护下执行请求
+     *
+     * @param host    请求的主机
+     * @param request 请求，每次重试都会重新订阅
+     * @param <T>     响应类型
+     * @return 响应
+     */
+    public <T> Mono<T> execute(String host, Mono<T> request) {
+        HostGuard guard = hosts.computeIfAbsent(host, HostGuard::create);
+
+        Mono<T> attempt = Mono.defer(() -> {
+                Duration wait = guard.limiter().reserve();
+                return wait.isZero() ? request : Mono.delay(wait).then(request);
+            })
+            .doOnError(e -> onAttemptError(host, guard, e));
+
+        return Mono.defer(() -> {
+            if (!guard.breaker().tryAcquire()) {
+                return Mono.error(new SteamUnavailableException(host));
+            }
+            return attempt
+                .retryWhen(Retry.backoff(MAX_RETRIES, MIN_BACKOFF)
+                    .maxBackoff(MAX_BACKOFF)
+                    .jitter(0.5)
+                    .filter(SteamRequestGuard::isRetryable)
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(result -> {
+                    guard.breaker().onSuccess();
+                    guard.limiter().onSuccess();
+                })
+                .doOnError(e -> {
+                    if (isRetryable(e) && guard.breaker().onFailure()) {
+                        log.warn("{} 连续请求失败，熔断 {} 秒", host, OPEN_DURATION.toSeconds());
+                    } else if (!isRetryable(e)) {
+                        // 服务端已正常响应（如 4xx），不计入熔断
+                        guard.breaker().onSuccess();
+                    }
+                })
+                .doOnCancel(() -> guard.breaker().onCancel());
+        });
+    }
+
+    private void onAttemptError(String host, HostGuard guard, Throwable e) {
+        if (e instanceof WebClientResponseException responseException
+            && responseException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            Duration pause = retryAfter(responseException.getHeaders());
+            guard.limiter().onThrottled(pause);
+            log.warn("{} 请求被限流，暂停 {} 秒，速率降至 {}/秒", host, pause.toSeconds(),
+                String.format("%.2f", guard.limiter().currentRate()));
+        }
+    }
+
+    /**
+     * 判断错误是否可重试：429、5xx、连接错误和超时
+     */
+    static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            return status == HttpStatus.TOO_MANY_REQUESTS.value() || status >= 500;
+        }
+        return e instanceof WebClientRequestException
+            || e instanceof TimeoutException
+            || e instanceof java.util.concurrent.TimeoutException;
+    }
+
+    /**
+     * 将请求错误归类为可以公开的错误代码
+     * <p>WebClient 异常的消息包含完整请求 URL（其中有 API Key），不能直接返回给客户端。</p>
+     *
+     * @param e 错误
+     * @return 错误代码：rate-limited、invalid-credentials、steam-unavailable、timeout、steam-api-error、internal-error
+     */
+    public static String errorCode(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException responseException) {
+                int status = responseException.getStatusCode().value();
+                if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                    return "rate-limited";
+                }
+                if (status == HttpStatus.UNAUTHORIZED.value() || status == HttpStatus.FORBIDDEN.value()) {
+                    return "invalid-credentials";
+                }
+                return "steam-api-error";
+            }
+            if (cause instanceof SteamUnavailableException) {
+                return "steam-unavailable";
+            }
+            if (cause instanceof TimeoutException || cause instanceof java.util.concurrent.TimeoutException) {
+                return "timeout";
+            }
+            if (cause instanceof WebClientRequestException) {
+                return "steam-api-error";
+            }
+        }
+        return "internal-error";
+    }
+
+    /**
+     * 解析 {@code Retry-After} 响应头，支持秒数和 HTTP 日期两种格式
+     */
+    private static Duration retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_THROTTLE_PAUSE;
+        }
+        Duration pause;
+        try {
+            pause = Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                pause = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt);
+            } catch (Exception ignored) {
+                pause = DEFAULT_THROTTLE_PAUSE;
+            }
+        }
+        if (pause.isNegative()) {
+            return Duration.ZERO;
+        }
+        return pause.compareTo(MAX_THROTTLE_PAUSE) > 0 ? MAX_THROTTLE_PAUSE : pause;
+    }
+
+    /**
+     * 单个主机的限流器和熔断器
+     */
+    private record HostGuard(TokenBucketRateLimiter limiter, CircuitBreaker breaker) {
+
+        static HostGuard create(String host) {
+            // 商店接口（appdetails）限流严格，约每 5 分钟 200 次
+            TokenBucketRateLimiter limiter = switch (host) {
+                case STORE_HOST -> new TokenBucketRateLimiter(1, 0.2, 4, 10);
+                // 封面 CDN 没有严格限流，只需避免首次加载时的突发请求
+                case CDN_HOST -> new TokenBucketRateLimiter(20, 2, 50, 50);
+                default -> new TokenBucketRateLimiter(5, 0.5, 10, 10);
+            };
+            return new HostGuard(limiter, new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION));
+        }
+    }
+
+    /**
+     * 熔断器打开时抛出的异常
+     */
+    public static class SteamUnavailableException extends RuntimeException {
+
+        public SteamUnavailableException(String host) {
+            super("Steam 服务暂时不可用（" + host + " 已熔断），请稍后重试");
+        }
+    }
+}
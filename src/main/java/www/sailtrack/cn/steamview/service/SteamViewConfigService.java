@@ -6,11 +6,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import run.halo.app.plugin.ReactiveSettingFetcher;
+import www.sailtrack.cn.steamview.model.SteamAccount;
+import www.sailtrack.cn.steamview.model.SteamViewConfig;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Steam View 配置服务
+ * <p>所有配置项一次读取并解析为不可变的 {@link SteamViewConfig}，
+ * 之后直接使用内存中的快照，插件配置变化时才重新读取。</p>
  *
  * @author miku_0410
  * @since 1.0.0
@@ -19,103 +29,169 @@ import java.util.List;
 @Service
 public class SteamViewConfigService {
 
+    /**
+     * 插件配置 ConfigMap 名称，与 plugin.yaml 中的 configMapName 一致
+     */
+    public static final String CONFIG_MAP_NAME = "pluginsteamview-configmap";
+
+    private static final int DEFAULT_REFRESH_INTERVAL = 24;
+
     private final ReactiveSettingFetcher settingFetcher;
     private final ObjectMapper objectMapper;
 
+    private final AtomicReference<SteamViewConfig> config = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+
     public SteamViewConfigService(ReactiveSettingFetcher settingFetcher) {
         this.settingFetcher = settingFetcher;
         this.objectMapper = new ObjectMapper();
     }
 
     /**
-     * 获取 Steam API Key
+     * 获取配置快照
      *
-     * @return API Key
+     * @return 配置快照
      */
-    public Mono<String> getSteamApiKey() {
-        return getSettingValue("steamApiKey");
+    public Mono<SteamViewConfig> getConfig() {
+        SteamViewConfig current = config.get();
+        if (current != null) {
+            return Mono.just(current);
+        }
+
+        long loadGeneration = generation.get();
+        return settingFetcher.getValues()
+            .map(this::parse)
+            .defaultIfEmpty(parse(Map.of()))
+            .doOnNext(loaded -> {
+                // 加载期间配置发生变化时不保存本次结果
+                if (generation.get() == loadGeneration) {
+                    config.compareAndSet(null, loaded);
+                }
+            })
+            .onErrorResume(e -> {
+                log.error("读取插件配置失败: {}", e.getMessage());
+                return Mono.just(parse(Map.of()));
+            });
     }
 
     /**
-     * 获取 Steam ID
-     *
-     * @return Steam ID
+     * 插件配置变化时调用，下次读取时重新加载
      */
-    public Mono<String> getSteamId() {
-        return getSettingValue("steamId");
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (config.getAndSet(null) != null) {
+            log.info("插件配置已变化，配置快照失效");
+        }
     }
 
     /**
-     * 获取数据刷新频率（小时）
+     * 解析所有配置分组
      *
-     * @return 刷新频率
+     * @param groups 配置分组
+     * @return 配置快照
      */
-    public Mono<Integer> getRefreshInterval() {
-        return getSettingValue("refreshInterval")
-            .map(value -> {
-                if (value == null || value.isEmpty()) {
-                    return 24;
-                }
-                try {
-                    return Integer.parseInt(value);
-                } catch (NumberFormatException e) {
-                    log.error("解析刷新频率失败: {}", value, e);
-                    return 24;
-                }
-            })
-            .defaultIfEmpty(24);
+    private SteamViewConfig parse(Map<String, JsonNode> groups) {
+        JsonNode base = groups.get("base");
+        JsonNode advanced = groups.get("advanced");
+        String steamApiKey = textOf(base, "steamApiKey");
+
+        Set<String> hiddenGames = parseHiddenGames(valueOf(advanced, "hiddenGames"));
+        if (hiddenGames.isEmpty()) {
+            // 兼容早期版本写在 base 分组中的隐藏列表
+            hiddenGames = parseHiddenGames(valueOf(base, "hiddenGames"));
+        }
+
+        return new SteamViewConfig(
+            steamApiKey,
+            textOf(base, "steamId"),
+            parseRefreshInterval(textOf(base, "refreshInterval")),
+            hiddenGames,
+            parseAccounts(valueOf(groups.get("accounts"), "accounts"), steamApiKey)
+        );
+    }
+
+    private static JsonNode valueOf(JsonNode group, String key) {
+        if (group == null) {
+            return null;
+        }
+        JsonNode valueNode = group.path(key);
+        return valueNode.isMissingNode() || valueNode.isNull() ? null : valueNode;
+    }
+
+    private static String textOf(JsonNode group, String key) {
+        JsonNode valueNode = valueOf(group, key);
+        return valueNode == null ? "" : valueNode.asText();
+    }
+
+    private int parseRefreshInterval(String value) {
+        if (value == null || value.isEmpty()) {
+            return DEFAULT_REFRESH_INTERVAL;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.error("解析刷新频率失败: {}", value, e);
+            return DEFAULT_REFRESH_INTERVAL;
+        }
     }
 
     /**
-     * 获取隐藏的游戏列表
+     * 解析默认账号以外的账号，标识无效或重复的账号被忽略
      *
-     * @return 游戏 App ID 列表
+     * @param node          配置值
+     * @param defaultApiKey 默认账号的 API Key，账号未单独配置时使用
+     * @return 账号列表
      */
-    public Mono<List<String>> getHiddenGames() {
-        return getSettingValue("hiddenGames")
-            .map(hiddenGames -> {
-                if (hiddenGames == null || hiddenGames.isEmpty()) {
-                    return List.<String>of();
-                }
-                // 解析 JSON 数组字符串
-                try {
-                    JsonNode node = objectMapper.readTree(hiddenGames);
-                    if (node.isArray()) {
-                        List<String> result = new java.util.ArrayList<>();
-                        for (JsonNode item : node) {
-                            result.add(item.asText());
-                        }
-                        return result;
-                    }
-                    return List.<String>of();
-                } catch (Exception e) {
-                    log.error("解析隐藏游戏列表失败", e);
-                    return List.<String>of();
-                }
-            })
-            .defaultIfEmpty(List.<String>of());
+    private List<SteamAccount> parseAccounts(JsonNode node, String defaultApiKey) {
+        if (node == null || !node.isArray()) {
+            return List.of();
+        }
+        List<SteamAccount> accounts = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        ids.add(SteamAccount.DEFAULT_ID);
+        for (JsonNode item : node) {
+            String id = textOf(item, "id");
+            if (!SteamAccount.isValidId(id)) {
+                log.warn("忽略标识无效的账号: {}，标识只能包含小写字母、数字和连字符", id);
+                continue;
+            }
+            if (!ids.add(id)) {
+                log.warn("忽略标识重复的账号: {}", id);
+                continue;
+            }
+            String apiKey = textOf(item, "steamApiKey");
+            accounts.add(new SteamAccount(id, textOf(item, "name"),
+                apiKey.isBlank() ? defaultApiKey : apiKey, textOf(item, "steamId")));
+        }
+        return accounts;
     }
 
     /**
-     * 从 Setting 资源中获取配置值
+     * 解析隐藏游戏列表，支持 JSON 数组或 JSON 数组字符串
      *
-     * @param key 配置键
-     * @return 配置值
+     * @param node 配置值
+     * @return 游戏 App ID 集合
      */
-    private Mono<String> getSettingValue(String key) {
-        return settingFetcher.get("base")
-            .map(item -> {
-                try {
-                    JsonNode valueNode = item.path(key);
-                    if (valueNode == null || valueNode.isNull()) {
-                        return "";
-                    }
-                    return valueNode.asText();
-                } catch (Exception e) {
-                    log.error("读取配置值失败: {}", e.getMessage());
-                    return "";
+    private Set<String> parseHiddenGames(JsonNode node) {
+        if (node == null) {
+            return Set.of();
+        }
+        try {
+            JsonNode arrayNode = node.isTextual() ? objectMapper.readTree(node.asText()) : node;
+            if (arrayNode == null || !arrayNode.isArray()) {
+                return Set.of();
+            }
+            Set<String> result = new HashSet<>();
+            for (JsonNode item : arrayNode) {
+                String appId = item.asText().trim();
+                if (!appId.isEmpty()) {
+                    result.add(appId);
                 }
-            })
-            .defaultIfEmpty("");
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("解析隐藏游戏列表失败", e);
+            return Set.of();
+        }
     }
-}
\ No newline at end of file
+}
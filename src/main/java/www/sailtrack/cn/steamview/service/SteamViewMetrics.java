@@ -0,0 +1,215 @@
+package www.sailtrack.cn.steamview.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.timeout.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Steam View 指标
+ * <p>通过 Micrometer 记录缓存命中、刷新各阶段耗时、Steam 各接口的延迟和状态码、
+ * appdetails 并发与失败次数以及快照大小，用于根据实际数据调整刷新间隔和并发数。</p>
+ * <p>优先使用 Halo 提供的 {@link MeterRegistry}，插件上下文中不可用时注册到全局注册表。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class SteamViewMetrics {
+
+    public static final String PHASE_OWNED_GAMES = "owned_games";
+    public static final String PHASE_RECENT_GAMES = "recent_games";
+    public static final String PHASE_LOCALIZED_NAMES = "localized_names";
+    public static final String PHASE_SAVE = "save";
+
+    public static final String ENDPOINT_RESOLVE_VANITY_URL = "ResolveVanityURL";
+    public static final String ENDPOINT_OWNED_GAMES = "GetOwnedGames";
+    public static final String ENDPOINT_RECENTLY_PLAYED_GAMES = "GetRecentlyPlayedGames";
+    public static final String ENDPOINT_APP_DETAILS = "appdetails";
+    public static final String ENDPOINT_COVER = "cover";
+
+    private static final String CACHE_REQUESTS = "steamview.cache.requests";
+    private static final String REFRESH_PHASE = "steamview.refresh.phase";
+    private static final String STEAM_REQUESTS = "steamview.steam.requests";
+
+    private final MeterRegistry registry;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheStale;
+    private final Counter appDetailsFailures;
+
+    /**
+     * 正在进行的 appdetails 查询数量
+     */
+    private final AtomicInteger appDetailsInFlight = new AtomicInteger();
+
+    /**
+     * 各账号的快照大小，按账号标签分别注册
+     */
+    private final Map<String, SnapshotSize> snapshotSizes = new ConcurrentHashMap<>();
+
+    public SteamViewMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        this.cacheHits = cacheCounter("hit");
+        this.cacheMisses = cacheCounter("miss");
+        this.cacheStale = cacheCounter("stale");
+        this.appDetailsFailures = Counter.builder("steamview.appdetails.failures")
+            .description("appdetails 查询失败次数")
+            .register(registry);
+        Gauge.builder("steamview.appdetails.in_flight", appDetailsInFlight, AtomicInteger::get)
+            .description("正在进行的 appdetails 查询数量")
+            .register(registry);
+    }
+
+    private SnapshotSize snapshotSize(String accountId) {
+        return snapshotSizes.computeIfAbsent(accountId, account -> {
+            SnapshotSize size = new SnapshotSize(new AtomicLong(), new AtomicLong());
+            Gauge.builder("steamview.snapshot.games", size.games(), AtomicLong::get)
+                .description("当前快照的游戏数量")
+                .tag("account", account)
+                .register(registry);
+            Gauge.builder("steamview.snapshot.bytes", size.bytes(), AtomicLong::get)
+                .description("当前快照在扩展存储中的编码大小")
+                .tag("account", account)
+                .baseUnit("bytes")
+                .register(registry);
+            return size;
+        });
+    }
+
+    private Counter cacheCounter(String result) {
+        return Counter.builder(CACHE_REQUESTS)
+            .description("游戏数据请求的缓存命中情况")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * 记录缓存命中：返回未过期的缓存数据
+     */
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * 记录缓存未命中：没有缓存，需要等待从 Steam 获取
+     */
+    public void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /**
+     * 记录过期命中：返回已过期的缓存数据并在后台刷新
+     */
+    public void cacheStale() {
+        cacheStale.increment();
+    }
+
+    /**
+     * 记录刷新阶段的耗时
+     *
+     * @param phase 阶段名称
+     * @param stage 阶段逻辑
+     * @param <T>   结果类型
+     * @return 记录耗时的阶段逻辑
+     */
+    public <T> Mono<T> timePhase(String phase, Mono<T> stage) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return stage
+                .doOnSuccess(result -> sample.stop(phaseTimer(phase, "success")))
+                .doOnError(e -> sample.stop(phaseTimer(phase, "error")));
+        });
+    }
+
+    private Timer phaseTimer(String phase, String outcome) {
+        return Timer.builder(REFRESH_PHASE)
+            .description("刷新各阶段耗时")
+            .tag("phase", phase)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * 记录单次 Steam 请求的延迟和状态码，重试的每次请求分别记录
+     *
+     * @param endpoint 接口名称
+     * @param request  请求
+     * @param <T>      响应类型
+     * @return 记录延迟的请求
+     */
+    public <T> Mono<T> timeSteamRequest(String endpoint, Mono<T> request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return request
+                .doOnSuccess(result -> sample.stop(steamTimer(endpoint, "2xx")))
+                .doOnError(e -> sample.stop(steamTimer(endpoint, status(e))));
+        });
+    }
+
+    private Timer steamTimer(String endpoint, String status) {
+        return Timer.builder(STEAM_REQUESTS)
+            .description("Steam 接口请求延迟")
+            .tag("endpoint", endpoint)
+            .tag("status", status)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static String status(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return String.valueOf(responseException.getStatusCode().value());
+        }
+        if (e instanceof TimeoutException || e instanceof java.util.concurrent.TimeoutException) {
+            return "timeout";
+        }
+        return "io_error";
+    }
+
+    /**
+     * 记录 appdetails 查询的并发数和失败次数
+     *
+     * @param lookup 查询
+     * @param <T>    结果类型
+     * @return 记录指标的查询
+     */
+    public <T> Mono<T> trackAppDetails(Mono<T> lookup) {
+        return Mono.defer(() -> {
+            appDetailsInFlight.incrementAndGet();
+            return lookup
+                .doOnError(e -> appDetailsFailures.increment())
+                .doFinally(signal -> appDetailsInFlight.decrementAndGet());
+        });
+    }
+
+    /**
+     * 记录当前快照大小
+     *
+     * @param accountId 账号标识
+     * @param games     游戏数量
+     * @param bytes     编码后的字节数
+     */
+    public void recordSnapshot(String accountId, int games, long bytes) {
+        SnapshotSize size = snapshotSize(accountId);
+        size.games().set(games);
+        size.bytes().set(bytes);
+        log.debug("账号 {} 的快照大小：{} 个游戏，{} 字节", accountId, games, bytes);
+    }
+
+    private record SnapshotSize(AtomicLong games, AtomicLong bytes) {
+    }
+}
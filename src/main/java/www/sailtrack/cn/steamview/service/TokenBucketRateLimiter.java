@@ -0,0 +1,85 @@
+package www.sailtrack.cn.steamview.service;
+
+import java.time.Duration;
+
+/**
+ * 自适应令牌桶限流器
+ * <p>被限流（429）时速率减半并按 {@code Retry-After} 暂停，请求成功时速率缓慢回升（AIMD）。</p>
+ *
+ * @author miku_0410
+ * @since 1.0.0
+ */
+final class TokenBucketRateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double capacity;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    /**
+     * @param initialRate 初始速率（次/秒）
+     * @param minRate     最低速率（次/秒）
+     * @param maxRate     最高速率（次/秒）
+     * @param capacity    桶容量（允许的突发请求数）
+     */
+    TokenBucketRateLimiter(double initialRate, double minRate, double maxRate, double capacity) {
+        this.rate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = Math.max(minRate / 4, 0.01);
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 预留一个令牌
+     *
+     * @return 获得令牌前需要等待的时间
+     */
+    synchronized Duration reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        tokens -= 1;
+        long tokenWait = tokens >= 0 ? 0 : (long) (-tokens / rate * NANOS_PER_SECOND);
+        long pauseWait = Math.max(0, pausedUntilNanos - now);
+        return Duration.ofNanos(Math.max(tokenWait, pauseWait));
+    }
+
+    /**
+     * 请求成功，速率加性增长
+     */
+    synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + increaseStep);
+    }
+
+    /**
+     * 被限流，速率减半并暂停一段时间
+     *
+     * @param pause 暂停时长
+     */
+    synchronized void onThrottled(Duration pause) {
+        long now = System.nanoTime();
+        refill(now);
+        rate = Math.max(minRate, rate / 2);
+        tokens = Math.min(tokens, 0);
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + pause.toNanos());
+    }
+
+    synchronized double currentRate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        double elapsedSeconds = (now - lastRefillNanos) / NANOS_PER_SECOND;
+        tokens = Math.min(capacity, tokens + elapsedSeconds * rate);
+        lastRefillNanos = now;
+    }
+}
@@ -6,6 +6,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import run.halo.app.plugin.PluginContext;
+import www.sailtrack.cn.steamview.service.CacheWarmup;
+import www.sailtrack.cn.steamview.service.GameRefreshScheduler;
 
 @ExtendWith(MockitoExtension.class)
 public  class SteamViewPluginTest {
@@ -13,6 +15,12 @@ public  class SteamViewPluginTest {
     @Mock
     PluginContext context;
 
+    @Mock
+    GameRefreshScheduler gameRefreshScheduler;
+
+    @Mock
+    CacheWarmup cacheWarmup;
+
     @InjectMocks
     SteamViewPlugin plugin;
 
@@ -0,0 +1,99 @@
+package www.sailtrack.cn.steamview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameIndexTest {
+
+    private static final String[] WORDS = {"Dark", "Souls", "Half", "Life", "Portal", "Stellar", "Blade", "传说", "之剑"};
+
+    @Test
+    void keywordPagesMatchFilteredFullOrder() {
+        Random random = new Random(7);
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            games.add(Game.of(String.valueOf(100 + i), name, random.nextInt(50) * 60L, random.nextInt(3) * 30L,
+                random.nextInt(1000)));
+        }
+        GameIndex index = GameIndex.build(games);
+
+        for (GameSort sort : GameSort.values()) {
+            for (boolean reversed : new boolean[]{false, true}) {
+                for (String keyword : List.of("souls", "life", "传说", "z")) {
+                    List<Game> all = index.query(sort, reversed, null, 1, games.size()).items();
+                    List<Game> expected = all.stream()
+                        .filter(game -> index.search().matching(keyword).get(games.indexOf(game)))
+                        .toList();
+                    for (int page = 1; page <= expected.size() / 25 + 2; page++) {
+                        GameIndex.Page result = index.query(sort, reversed, keyword, page, 25);
+                        int from = Math.min((page - 1) * 25, expected.size());
+                        assertEquals(expected.subList(from, Math.min(from + 25, expected.size())), result.items(),
+                            sort + " " + reversed + " " + keyword + " page " + page);
+                        assertEquals(expected.size(), result.total());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void reversedOrderIsExactInverse() {
+        List<Game> games = List.of(
+            Game.of("1", "A", 10, 0, 0),
+            Game.of("2", "B", 30, 0, 0),
+            Game.of("3", "C", 20, 0, 0)
+        );
+        GameIndex index = GameIndex.build(games);
+
+        assertEquals(List.of("2", "3", "1"), appIds(index.query(GameSort.TOTAL_TIME, false, null, 1, 10)));
+        assertEquals(List.of("1", "3", "2"), appIds(index.query(GameSort.TOTAL_TIME, true, null, 1, 10)));
+        assertEquals(List.of("3"), appIds(index.query(GameSort.TOTAL_TIME, true, null, 2, 1)));
+    }
+
+    @Test
+    void pageBeyondIntRangeIsEmpty() {
+        GameIndex index = GameIndex.build(List.of(Game.of("1", "Portal", 10, 0, 0), Game.of("2", "Portal 2", 20, 0, 0)));
+
+        GameIndex.Page page = index.query(GameSort.TOTAL_TIME, false, null, Integer.MAX_VALUE, GameQuery.MAX_PAGE_SIZE);
+        assertTrue(page.items().isEmpty());
+        assertEquals(2, page.total());
+
+        GameIndex.Page keywordPage = index.query(GameSort.TOTAL_TIME, true, "portal", Integer.MAX_VALUE,
+            GameQuery.MAX_PAGE_SIZE);
+        assertTrue(keywordPage.items().isEmpty());
+        assertEquals(2, keywordPage.total());
+    }
+
+    @Test
+    void containsOnlyLibraryAppIds() {
+        GameIndex index = GameIndex.build(List.of(Game.of("570", "Dota 2", 0, 0, 0)));
+
+        assertTrue(index.contains("570"));
+        assertFalse(index.contains("571"));
+    }
+
+    @Test
+    void queryWithOnlyOrderIsPaged() {
+        assertNull(GameQuery.from(null, null, null, null, null));
+
+        GameQuery query = GameQuery.from(null, null, null, "asc", null);
+        assertNotNull(query);
+        assertTrue(query.reversed());
+        assertEquals(1, query.page());
+        assertEquals(GameQuery.DEFAULT_PAGE_SIZE, query.size());
+    }
+
+    private static List<String> appIds(GameIndex.Page page) {
+        return page.items().stream().map(Game::appId).toList();
+    }
+}
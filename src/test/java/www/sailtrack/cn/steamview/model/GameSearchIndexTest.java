@@ -0,0 +1,120 @@
+package www.sailtrack.cn.steamview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameSearchIndexTest {
+
+    private static final List<Game> GAMES = List.of(
+        Game.of("70", "Half-Life", 300, 0, 0),
+        Game.of("220", "Half-Life 2", 900, 0, 0),
+        Game.of("400", "Portal", 200, 0, 0),
+        Game.of("2358720", "黑神话：悟空", 3000, 600, 0),
+        Game.of("570", "Dota 2", 5000, 0, 0).withLocalizedName("刀塔 2"),
+        Game.of("3590", "Plants vs. Zombies", 100, 0, 0),
+        Game.of("1091500", "Pokémon Legends", 50, 0, 0),
+        Game.of("9000", "abxbc", 10, 0, 0)
+    );
+
+    private final GameSearchIndex index = GameSearchIndex.build(GAMES);
+
+    @Test
+    void matchesBigramsIgnoringCaseAndPunctuation() {
+        // 完全匹配优先于前缀匹配，即使总时长较短
+        assertEquals(List.of("70", "220"), appIds(index.search("HALF life", 10)));
+        assertEquals(List.of("70", "220"), appIds(index.search("half-life", 10)));
+        assertEquals(List.of("3590"), appIds(index.search("vs zombies", 10)));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordStartThenContains() {
+        List<Game> games = List.of(
+            Game.of("1", "Super Portal", 900, 0, 0),
+            Game.of("2", "Portal", 10, 0, 0),
+            Game.of("3", "Portal Knights", 500, 0, 0),
+            Game.of("4", "Teleportal", 1000, 0, 0)
+        );
+
+        assertEquals(List.of("2", "3", "1", "4"), appIds(GameSearchIndex.build(games).search("portal", 10)));
+    }
+
+    @Test
+    void breaksScoreTiesByTotalTime() {
+        assertEquals(List.of("220", "70"), appIds(index.search("half", 10)));
+    }
+
+    @Test
+    void verifiesCandidatesFromBigramIntersection() {
+        // ab、bc 都在倒排表中，但 abc 并不连续出现
+        assertEquals(0, index.search("abc", 10).total());
+        assertTrue(index.matching("abc").isEmpty());
+    }
+
+    @Test
+    void matchesSingleCjkCharacterByUnigram() {
+        assertEquals(List.of("2358720"), appIds(index.search("悟", 10)));
+        assertEquals(List.of("2358720"), appIds(index.search("悟空", 10)));
+    }
+
+    @Test
+    void matchesFullPinyinAndInitials() {
+        assertEquals(List.of("2358720"), appIds(index.search("wukong", 10)));
+        assertEquals(List.of("2358720"), appIds(index.search("heishenhua", 10)));
+        assertEquals(List.of("2358720"), appIds(index.search("hshwk", 10)));
+        assertEquals(List.of("570"), appIds(index.search("daota", 10)));
+    }
+
+    @Test
+    void matchesOriginalNameOfLocalizedGame() {
+        assertEquals(List.of("570"), appIds(index.search("dota", 10)));
+        assertEquals(List.of("570"), appIds(index.search("刀塔", 10)));
+    }
+
+    @Test
+    void foldsLatinDiacritics() {
+        assertEquals(List.of("1091500"), appIds(index.search("pokemon", 10)));
+        assertEquals(List.of("1091500"), appIds(index.search("POKÉMON", 10)));
+    }
+
+    @Test
+    void scansForSingleLatinCharacter() {
+        assertEquals(List.of("3590"), appIds(index.search("z", 10)));
+    }
+
+    @Test
+    void returnsNothingForBlankOrUnknownQuery() {
+        assertEquals(0, index.search("  -  ", 10).total());
+        assertEquals(0, index.search("minecraft", 10).total());
+        assertTrue(index.matching("").isEmpty());
+    }
+
+    @Test
+    void limitsResultsButCountsAllMatches() {
+        GameSearchIndex.Result result = index.search("a", 1);
+
+        assertEquals(1, result.games().size());
+        assertEquals(index.matching("a").cardinality(), result.total());
+    }
+
+    @Test
+    void matchingAgreesWithSearch() {
+        for (String query : List.of("half", "l", "2", "悟", "wk", "dota", "ta", "portal", "xyz")) {
+            BitSet matches = index.matching(query);
+            GameSearchIndex.Result result = index.search(query, GameSearchIndex.MAX_LIMIT);
+
+            assertEquals(matches.cardinality(), result.total(), query);
+            for (Game game : result.games()) {
+                assertTrue(matches.get(GAMES.indexOf(game)), query + " " + game.appId());
+            }
+        }
+    }
+
+    private static List<String> appIds(GameSearchIndex.Result result) {
+        return result.games().stream().map(Game::appId).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package www.sailtrack.cn.steamview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import www.sailtrack.cn.steamview.model.Game;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameCacheCodecTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final GameCacheCodec codec = new GameCacheCodec(jsonMapper);
+
+    @Test
+    void shardsRoundTripInOrder() {
+        List<Game> games = games(GameCacheCodec.SHARD_SIZE * 2 + 37);
+
+        List<GameCacheCodec.Shard> shards = codec.encodeShards(games);
+        assertEquals(3, shards.size());
+
+        List<Game> decoded = new ArrayList<>();
+        for (GameCacheCodec.Shard shard : shards) {
+            assertTrue(shard.name().startsWith(GameCacheCodec.SHARD_NAME_PREFIX), shard.name());
+            decoded.addAll(codec.decodeShard(shard.name(), shard.data()));
+        }
+        assertEquals(games, decoded);
+    }
+
+    @Test
+    void roundTripKeepsOriginalNameAndDropsPercents() {
+        Game localized = Game.of("570", "Dota 2", 1000, 60, 1700000000L)
+            .withLocalizedName("刀塔 2")
+            .withPercents(12.5, 50);
+
+        GameCacheCodec.Shard shard = codec.encodeShards(List.of(localized)).get(0);
+        Game decoded = codec.decodeShard(shard.name(), shard.data()).get(0);
+
+        assertEquals("刀塔 2", decoded.name());
+        assertEquals("Dota 2", decoded.originalName());
+        assertEquals(localized.withPercents(0, 0), decoded);
+    }
+
+    @Test
+    void unchangedShardsKeepTheirNames() {
+        List<Game> games = games(GameCacheCodec.SHARD_SIZE * 2);
+        List<GameCacheCodec.Shard> before = codec.encodeShards(games);
+
+        List<Game> changed = new ArrayList<>(games);
+        changed.set(GameCacheCodec.SHARD_SIZE + 1, changed.get(GameCacheCodec.SHARD_SIZE + 1).withPlaytime(999, 9, 0));
+        List<GameCacheCodec.Shard> after = codec.encodeShards(changed);
+
+        assertEquals(before.get(0), after.get(0));
+        assertNotEquals(before.get(1).name(), after.get(1).name());
+    }
+
+    @Test
+    void accountShardsUseTheirOwnPrefix() {
+        GameCacheCodec accountCodec = new GameCacheCodec(jsonMapper, "game-cache-alt-shard-");
+        List<Game> games = games(3);
+
+        GameCacheCodec.Shard shard = accountCodec.encodeShards(games).get(0);
+
+        assertTrue(shard.name().startsWith("game-cache-alt-shard-"), shard.name());
+        assertEquals(games, accountCodec.decodeShard(shard.name(), shard.data()));
+        // 同样的内容在默认账号下名称不同，校验也不会通过
+        assertThrows(IllegalStateException.class, () -> codec.decodeShard(shard.name(), shard.data()));
+    }
+
+    @Test
+    void rejectsShardWhoseContentDoesNotMatchItsName() {
+        List<GameCacheCodec.Shard> shards = codec.encodeShards(games(GameCacheCodec.SHARD_SIZE + 1));
+
+        assertThrows(IllegalStateException.class,
+            () -> codec.decodeShard(shards.get(0).name(), shards.get(1).data()));
+        assertThrows(IllegalStateException.class, () -> codec.decodeShard(shards.get(0).name(), ""));
+    }
+
+    @Test
+    void encodesNoShardsForEmptyLibrary() {
+        assertTrue(codec.encodeShards(List.of()).isEmpty());
+    }
+
+    @Test
+    void manifestRoundTrip() {
+        GameCacheCodec.Manifest manifest = new GameCacheCodec.Manifest(GameCacheCodec.FORMAT_VERSION,
+            Instant.parse("2026-01-15T08:00:00Z"), Instant.parse("2026-01-14T08:00:00Z"), 1037,
+            List.of("game-cache-shard-a", "game-cache-shard-b"));
+
+        assertEquals(manifest, codec.decodeManifest(codec.encodeManifest(manifest)));
+    }
+
+    @Test
+    void manifestIgnoresUnknownFieldsAndMissingShards() {
+        GameCacheCodec.Manifest manifest = codec.decodeManifest(
+            "{\"format\":3,\"gameCount\":0,\"lastUpdated\":\"2026-01-15T08:00:00Z\",\"checksum\":\"x\"}");
+
+        assertEquals(3, manifest.format());
+        assertEquals(Instant.parse("2026-01-15T08:00:00Z"), manifest.lastUpdated());
+        assertEquals(List.of(), manifest.shards());
+    }
+
+    private static List<Game> games(int count) {
+        List<Game> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            games.add(Game.of(String.valueOf(10 + i), "Game " + i, i * 7L, i % 5, 1600000000L + i));
+        }
+        return games;
+    }
+}
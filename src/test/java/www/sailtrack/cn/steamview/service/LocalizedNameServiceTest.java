@@ -0,0 +1,35 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LocalizedNameServiceTest {
+
+    @Test
+    void prunesExpiredEntriesNotInUse() {
+        Map<String, LocalizedNameService.NameEntry> entries = new HashMap<>();
+        entries.put("10", new LocalizedNameService.NameEntry("半条命", 50));
+        entries.put("20", new LocalizedNameService.NameEntry(null, 90));
+        entries.put("30", new LocalizedNameService.NameEntry("传送门", 200));
+        entries.put("40", new LocalizedNameService.NameEntry("黑神话：悟空", 80));
+
+        assertEquals(2, LocalizedNameService.prune(entries, Set.of("40"), 100, 10));
+        assertEquals(Set.of("30", "40"), entries.keySet());
+    }
+
+    @Test
+    void evictsEarliestExpiringEntriesBeyondLimit() {
+        Map<String, LocalizedNameService.NameEntry> entries = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            entries.put(String.valueOf(i), new LocalizedNameService.NameEntry("game " + i, 100 + i));
+        }
+
+        assertEquals(2, LocalizedNameService.prune(entries, Set.of("1"), 0, 3));
+        assertEquals(Set.of("1", "4", "5"), entries.keySet());
+    }
+}
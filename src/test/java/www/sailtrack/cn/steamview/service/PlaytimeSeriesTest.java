@@ -0,0 +1,95 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlaytimeSeriesTest {
+
+    @Test
+    void encodesColumnsAsDeltaVarints() {
+        PlaytimeSeries series = new PlaytimeSeries();
+        series.put(0, 1, 1);
+        series.put(5, 1, 0);
+
+        // 版本 1、数量 2、偏移差值 0,5、总时长 zigzag 2,0、两周时长 zigzag 2,1（差值 -1）
+        assertEquals("AQIABQIAAgE=", series.encode());
+    }
+
+    @Test
+    void encodesMultiByteVarintAndNegativeZigzag() {
+        PlaytimeSeries series = new PlaytimeSeries();
+        series.put(300, -2, 0);
+
+        // 300 = 0xAC 0x02，-2 的 zigzag 为 3
+        assertEquals("AQGsAgMA", series.encode());
+    }
+
+    @Test
+    void roundTripsLargeAndDecreasingValues() {
+        PlaytimeSeries series = new PlaytimeSeries();
+        long[][] points = {
+            {0, 0, 0},
+            {1, 120, 120},
+            {86_400, 1L << 35, 300},
+            {86_401, (1L << 35) + 1, 0},
+            {Integer.MAX_VALUE * 3L, Long.MAX_VALUE / 2, 20_160},
+            {Long.MAX_VALUE / 2, 7, 1}
+        };
+        for (long[] point : points) {
+            assertTrue(series.put(point[0], point[1], point[2]));
+        }
+
+        PlaytimeSeries decoded = PlaytimeSeries.decode(series.encode());
+
+        assertEquals(points.length, decoded.size());
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(points[i][0], decoded.offset(i), "offset " + i);
+            assertEquals(points[i][1], decoded.totalTime(i), "totalTime " + i);
+            assertEquals(points[i][2], decoded.twoWeekTime(i), "twoWeekTime " + i);
+        }
+    }
+
+    @Test
+    void roundTripsBeyondInitialCapacityAndKeepsAppending() {
+        PlaytimeSeries series = new PlaytimeSeries();
+        for (int i = 0; i < 100; i++) {
+            series.put(i * 3600L, i * 60L, (i % 14) * 30L);
+        }
+
+        PlaytimeSeries decoded = PlaytimeSeries.decode(series.encode());
+        assertEquals(100, decoded.size());
+        assertEquals(99 * 3600L, decoded.offset(99));
+        assertEquals(99 * 60L, decoded.totalTime(99));
+
+        assertTrue(decoded.put(100 * 3600L, 6000, 0));
+        assertEquals(101, PlaytimeSeries.decode(decoded.encode()).size());
+    }
+
+    @Test
+    void decodesEmptyData() {
+        assertEquals(0, PlaytimeSeries.decode(null).size());
+        assertEquals(0, PlaytimeSeries.decode("").size());
+        assertEquals(0, PlaytimeSeries.decode(new PlaytimeSeries().encode()).size());
+    }
+
+    @Test
+    void overwritesSameOffsetAndIgnoresEarlierOffsets() {
+        PlaytimeSeries series = new PlaytimeSeries();
+        assertTrue(series.put(10, 100, 10));
+        assertFalse(series.put(10, 100, 10));
+        assertTrue(series.put(10, 110, 20));
+        assertFalse(series.put(5, 200, 0));
+
+        assertEquals(1, series.size());
+        assertTrue(series.endsWith(110, 20));
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        assertThrows(IllegalArgumentException.class, () -> PlaytimeSeries.decode("AgA="));
+    }
+}
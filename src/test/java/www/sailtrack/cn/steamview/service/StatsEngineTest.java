@@ -0,0 +1,125 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.junit.jupiter.api.Test;
+import www.sailtrack.cn.steamview.event.GameLibraryUpdatedEvent;
+import www.sailtrack.cn.steamview.model.Game;
+import www.sailtrack.cn.steamview.model.GameLibrary;
+import www.sailtrack.cn.steamview.model.LibraryStats;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StatsEngineTest {
+
+    private static final String ACCOUNT = "default";
+
+    private static final long NOW = Instant.now().getEpochSecond();
+
+    @Test
+    void incrementalUpdatesMatchFullRecompute() {
+        Random random = new Random(42);
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            games.add(randomGame(random, String.valueOf(1000 + i)));
+        }
+        StatsEngine incremental = new StatsEngine();
+        GameLibrary library = library(games, 1);
+        incremental.onLibraryUpdated(new GameLibraryUpdatedEvent(this, ACCOUNT, null, library));
+
+        int nextAppId = 2000;
+        for (int round = 2; round <= 40; round++) {
+            GameLibrary previous = library;
+            for (int change = 0; change < 10; change++) {
+                int index = random.nextInt(games.size());
+                switch (random.nextInt(4)) {
+                    case 0 -> games.add(randomGame(random, String.valueOf(nextAppId++)));
+                    case 1 -> games.remove(index);
+                    case 2 -> games.set(index, games.get(index).withPlaytime(games.get(index).totalTime()
+                        + random.nextInt(600), random.nextInt(3) == 0 ? 0 : random.nextInt(1200), NOW));
+                    default -> games.set(index, games.get(index).withLocalizedName("本地化 " + round));
+                }
+            }
+            library = library(games, round);
+            incremental.onLibraryUpdated(new GameLibraryUpdatedEvent(this, ACCOUNT, previous, library));
+
+            for (int top : new int[]{1, 10, StatsEngine.MAX_TOP}) {
+                LibraryStats expected = new StatsEngine().stats(ACCOUNT, library, top);
+                assertEquals(expected, incremental.stats(ACCOUNT, library, top), "round " + round + " top " + top);
+            }
+        }
+    }
+
+    @Test
+    void statsSyncToLibraryWithoutEvent() {
+        List<Game> games = new ArrayList<>(List.of(
+            Game.of("1", "A", 600, 60, NOW - 3600),
+            Game.of("2", "B", 0, 0, 0)
+        ));
+        StatsEngine engine = new StatsEngine();
+        engine.stats(ACCOUNT, library(games, 1), null);
+
+        games.set(1, Game.of("2", "B", 30, 30, NOW));
+        GameLibrary updated = library(games, 2);
+        LibraryStats stats = engine.stats(ACCOUNT, updated, null);
+
+        assertEquals(new StatsEngine().stats(ACCOUNT, updated, null), stats);
+        assertEquals(2, stats.version());
+        assertEquals(630, stats.totalTime());
+        assertEquals(2, stats.twoWeekGames());
+        assertEquals(List.of("2", "1"), stats.top().get("lastPlayed").stream()
+            .map(LibraryStats.RankedGame::appId).toList());
+    }
+
+    @Test
+    void computesTotalsBucketsAndRankings() {
+        GameLibrary library = library(List.of(
+            Game.of("1", "A", 0, 0, 0),
+            Game.of("2", "B", 30, 30, NOW - 86400),
+            Game.of("3", "C", 600, 0, NOW - 86400 * 60L),
+            Game.of("4", "D", 40000, 120, NOW - 86400 * 400L),
+            Game.of("5", "E", 0, 0, NOW - 86400 * 10L)
+        ), 7);
+
+        LibraryStats stats = new StatsEngine().stats(ACCOUNT, library, 2);
+
+        assertEquals(5, stats.totalGames());
+        assertEquals(3, stats.playedGames());
+        assertEquals(2, stats.neverPlayedGames());
+        assertEquals(40630, stats.totalTime());
+        assertEquals(40630 / 3, stats.averageTime());
+        assertEquals(150, stats.twoWeekTime());
+        assertEquals(2, stats.twoWeekGames());
+        assertEquals(List.of(2, 1, 0, 1, 0, 0, 1), stats.playtime().stream().map(LibraryStats.Bucket::count).toList());
+        assertEquals(List.of(1, 1, 1, 0, 1, 1), stats.recency().stream().map(LibraryStats.Bucket::count).toList());
+        assertEquals(List.of("4", "3"), stats.top().get("totalTime").stream()
+            .map(LibraryStats.RankedGame::appId).toList());
+    }
+
+    @Test
+    void accountsAreIndependent() {
+        StatsEngine engine = new StatsEngine();
+        GameLibrary first = library(List.of(Game.of("1", "A", 100, 0, 0)), 1);
+        GameLibrary second = library(List.of(Game.of("2", "B", 5, 0, 0), Game.of("3", "C", 7, 0, 0)), 1);
+
+        engine.onLibraryUpdated(new GameLibraryUpdatedEvent(this, "first", null, first));
+        engine.onLibraryUpdated(new GameLibraryUpdatedEvent(this, "second", null, second));
+
+        assertEquals(100, engine.stats("first", first, null).totalTime());
+        assertEquals(12, engine.stats("second", second, null).totalTime());
+    }
+
+    private static GameLibrary library(List<Game> games, long version) {
+        return GameLibrary.of(List.copyOf(games), Instant.ofEpochSecond(NOW)).withVersion(version);
+    }
+
+    private static Game randomGame(Random random, String appId) {
+        long totalTime = random.nextInt(4) == 0 ? 0 : random.nextInt(50000);
+        long twoWeekTime = totalTime > 0 && random.nextBoolean() ? random.nextInt((int) Math.min(totalTime, 1200)) : 0;
+        long lastPlayed = random.nextInt(5) == 0 ? 0 : NOW - random.nextInt(86400 * 800);
+        return Game.of(appId, "Game " + appId, totalTime, twoWeekTime, lastPlayed);
+    }
+}
@@ -0,0 +1,121 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import www.sailtrack.cn.steamview.model.Game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SteamGameStreamParserTest {
+
+    /**
+     * 包含嵌套对象和数组、响应外同名字段以及多字节名称的响应
+     */
+    private static final String RESPONSE = """
+        {"games":[{"appid":1,"name":"outside"}],
+         "response":{"game_count":3,"games":[
+           {"appid":10,"name":"Half-Life","playtime_forever":120,"playtime_2weeks":30,"rtime_last_played":1700000000,
+            "content_descriptorids":[1,5],"stats":{"appid":99,"name":"nested","games":[{"appid":98}]}},
+           {"appid":"20","name":"黑神话：悟空","playtime_forever":600},
+           {"appid":30,"has_community_visible_stats":true,"playtime_forever":0}
+         ]}}
+        """;
+
+    private static final List<Game> EXPECTED = List.of(
+        Game.of("10", "Half-Life", 120, 30, 1700000000L),
+        Game.of("20", "黑神话：悟空", 600, 0, 0),
+        Game.of("30", "", 0, 0, 0)
+    );
+
+    @Test
+    void parsesGamesInSingleChunk() throws IOException {
+        byte[] data = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        SteamGameStreamParser parser = new SteamGameStreamParser();
+        List<Game> games = new ArrayList<>(parser.feed(data, 0, data.length));
+        games.addAll(parser.endOfInput());
+        parser.close();
+
+        assertEquals(EXPECTED, games);
+    }
+
+    @Test
+    void parsesGamesSplitAtEveryPosition() throws IOException {
+        byte[] data = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        for (int split = 1; split < data.length; split++) {
+            SteamGameStreamParser parser = new SteamGameStreamParser();
+            List<Game> games = new ArrayList<>(parser.feed(data, 0, split));
+            games.addAll(parser.feed(data, split, data.length - split));
+            games.addAll(parser.endOfInput());
+            parser.close();
+
+            assertEquals(EXPECTED, games, "split at " + split);
+        }
+    }
+
+    @Test
+    void parsesGamesFedByteByByte() throws IOException {
+        byte[] data = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        SteamGameStreamParser parser = new SteamGameStreamParser();
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < data.length; i++) {
+            games.addAll(parser.feed(data, i, 1));
+        }
+        games.addAll(parser.endOfInput());
+        parser.close();
+
+        assertEquals(EXPECTED, games);
+    }
+
+    @Test
+    void emitsGameAsSoonAsItsObjectCloses() throws IOException {
+        byte[] data = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        int firstGameEnd = RESPONSE.indexOf("}},") + 2;
+        int split = RESPONSE.substring(0, firstGameEnd).getBytes(StandardCharsets.UTF_8).length;
+        SteamGameStreamParser parser = new SteamGameStreamParser();
+
+        assertEquals(List.of(EXPECTED.get(0)), parser.feed(data, 0, split));
+        parser.close();
+    }
+
+    @Test
+    void rejectsTruncatedResponse() throws IOException {
+        byte[] data = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        SteamGameStreamParser parser = new SteamGameStreamParser();
+        parser.feed(data, 0, data.length / 2);
+
+        assertThrows(IOException.class, parser::endOfInput);
+        parser.close();
+    }
+
+    @Test
+    void parsesDataBufferStream() {
+        byte[] data = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < data.length; offset += 7) {
+            int length = Math.min(7, data.length - offset);
+            chunks.add(factory.wrap(Arrays.copyOfRange(data, offset, offset + length)));
+        }
+
+        assertEquals(EXPECTED, SteamGameStreamParser.parse(Flux.fromIterable(chunks)).collectList().block());
+    }
+
+    @Test
+    void failsDataBufferStreamOnMalformedJson() {
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance
+            .wrap("{\"response\":{\"games\":[{\"appid\":1,]}}".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(UncheckedIOException.class,
+            () -> SteamGameStreamParser.parse(Flux.just(buffer)).collectList().block());
+    }
+}
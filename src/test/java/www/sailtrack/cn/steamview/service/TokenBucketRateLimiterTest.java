@@ -0,0 +1,68 @@
+package www.sailtrack.cn.steamview.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    void allowsBurstUpToCapacityThenWaitsForTokens() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 0.5, 4, 2);
+
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertEquals(Duration.ZERO, limiter.reserve());
+        Duration wait = limiter.reserve();
+        assertTrue(wait.compareTo(Duration.ofMillis(900)) > 0 && wait.compareTo(Duration.ofSeconds(1)) <= 0,
+            "wait " + wait);
+    }
+
+    @Test
+    void halvesRateWhenThrottledDownToMinimum() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 0.5, 4, 2);
+
+        limiter.onThrottled(Duration.ZERO);
+        assertEquals(2, limiter.currentRate(), 1e-9);
+        limiter.onThrottled(Duration.ZERO);
+        assertEquals(1, limiter.currentRate(), 1e-9);
+        limiter.onThrottled(Duration.ZERO);
+        limiter.onThrottled(Duration.ZERO);
+        assertEquals(0.5, limiter.currentRate(), 1e-9);
+    }
+
+    @Test
+    void increasesRateAdditivelyUpToMaximum() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 0.4, 1.25, 2);
+
+        limiter.onSuccess();
+        assertEquals(1.1, limiter.currentRate(), 1e-9);
+        limiter.onSuccess();
+        assertEquals(1.2, limiter.currentRate(), 1e-9);
+        limiter.onSuccess();
+        assertEquals(1.25, limiter.currentRate(), 1e-9);
+    }
+
+    @Test
+    void recoversAfterThrottleOnlyGradually() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 1, 4, 2);
+
+        limiter.onThrottled(Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(3, limiter.currentRate(), 1e-9);
+    }
+
+    @Test
+    void pausesRequestsForRetryAfterAndDrainsBurst() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1, 100, 10);
+
+        limiter.onThrottled(Duration.ofSeconds(5));
+        Duration wait = limiter.reserve();
+        assertTrue(wait.compareTo(Duration.ofMillis(4900)) > 0 && wait.compareTo(Duration.ofSeconds(5)) <= 0,
+            "wait " + wait);
+    }
+}
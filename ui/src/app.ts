@@ -5,60 +5,69 @@ import './assets/steamview.css';
 document.addEventListener('DOMContentLoaded', function() {
     console.log('Steam View 前端页面已加载');
 
-    const { createApp, ref, computed, onMounted } = Vue;
+    const { createApp, ref, computed, watch, onMounted } = Vue;
+
+    const PAGE_SIZE = 12;
+
+    // 服务端渲染页面时内联的首屏数据，存在时直接使用而无需再次请求
+    function readBootstrap() {
+        const element = document.getElementById('steamview-bootstrap');
+        if (!element || !element.textContent) {
+            return null;
+        }
+        try {
+            return JSON.parse(element.textContent);
+        } catch (e) {
+            console.warn('Failed to parse bootstrap data:', e);
+            return null;
+        }
+    }
+
+    const bootstrap = readBootstrap();
 
     const app = createApp({
         setup() {
             const games = ref([]);
+            const serverStats = ref(null);
+            const total = ref(0);
+            const page = ref(1);
             const loading = ref(true);
+            const loadingMore = ref(false);
             const error = ref(null);
+            const loadMoreError = ref(null);
             const sortBy = ref('twoWeekTime');
-            const displayCount = ref(12);
             const showSuccessTip = ref(false);
 
-            // 统计数据
+            if (bootstrap && bootstrap.data) {
+                const data = bootstrap.data;
+                sortBy.value = bootstrap.sort || 'twoWeekTime';
+                games.value = data.games || [];
+                total.value = data.total || 0;
+                serverStats.value = data.stats || null;
+                loading.value = false;
+            }
+
+            // 统计数据（由服务端按整个游戏库计算）
             const stats = computed(() => {
-                const totalGames = games.value.length;
-                const totalTime = games.value.reduce((sum, game) => sum + game.totalTime, 0);
-                const twoWeekTime = games.value.reduce((sum, game) => sum + game.twoWeekTime, 0);
-                const twoWeekGames = games.value.filter(game => game.twoWeekTime > 0).length;
-                const twoWeekDailyAverage = Math.round(twoWeekTime / 14);
-                const twoWeekTopGame = games.value
-                    .filter(game => game.twoWeekTime > 0)
-                    .sort((a, b) => b.twoWeekTime - a.twoWeekTime)[0];
+                const data = serverStats.value || {};
+                const twoWeekTime = data.twoWeekTime || 0;
 
                 return {
-                    totalGames,
-                    totalTime: formatTime(totalTime),
+                    totalGames: data.totalGames || 0,
+                    totalTime: formatTime(data.totalTime || 0),
                     twoWeekTime: formatTime(twoWeekTime),
-                    twoWeekGames,
-                    twoWeekDailyAverage: formatTime(twoWeekDailyAverage),
-                    twoWeekTopGame: twoWeekTopGame ? twoWeekTopGame.name : '无'
+                    twoWeekGames: data.twoWeekGames || 0,
+                    twoWeekDailyAverage: formatTime(Math.round(twoWeekTime / 14)),
+                    twoWeekTopGame: data.twoWeekTopGame || '无'
                 };
             });
 
-            // 显示的游戏列表
-            const displayedGames = computed(() => {
-                const sorted = [...games.value].sort((a, b) => {
-                    switch (sortBy.value) {
-                        case 'twoWeekTime':
-                            return b.twoWeekTime - a.twoWeekTime;
-                        case 'totalTime':
-                            return b.totalTime - a.totalTime;
-                        case 'name':
-                            return a.name.localeCompare(b.name);
-                        case 'lastPlayed':
-                            return b.lastPlayed.localeCompare(a.lastPlayed);
-                        default:
-                            return 0;
-                    }
-                });
-                return sorted.slice(0, displayCount.value);
-            });
+            // 显示的游戏列表（服务端已排序分页）
+            const displayedGames = computed(() => games.value);
 
             // 是否还有更多游戏可以加载
             const hasMoreGames = computed(() => {
-                return displayedGames.value.length < games.value.length;
+                return games.value.length < total.value;
             });
 
             function formatTime(minutes) {
@@ -70,24 +79,37 @@ document.addEventListener('DOMContentLoaded', function() {
                 return mins === 0 ? `${hours} 小时` : `${hours} 小时 ${mins} 分钟`;
             }
 
+            async function fetchPage(pageNumber) {
+                const params = new URLSearchParams({
+                    page: String(pageNumber),
+                    size: String(PAGE_SIZE),
+                    sort: sortBy.value
+                });
+                const response = await fetch(`/steamview/games?${params}`);
+                if (!response.ok) {
+                    const errorText = await response.text();
+                    let errorMessage = '加载游戏数据失败';
+                    try {
+                        const errorJson = JSON.parse(errorText);
+                        errorMessage = errorJson.message || errorMessage;
+                    } catch (e) {
+                        errorMessage = errorText || errorMessage;
+                    }
+                    throw new Error(errorMessage);
+                }
+                return response.json();
+            }
+
             async function loadGames() {
                 loading.value = true;
                 error.value = null;
+                loadMoreError.value = null;
                 try {
-                    const response = await fetch('/steamview/games');
-                    if (!response.ok) {
-                        const errorText = await response.text();
-                        let errorMessage = '加载游戏数据失败';
-                        try {
-                            const errorJson = JSON.parse(errorText);
-                            errorMessage = errorJson.message || errorMessage;
-                        } catch (e) {
-                            errorMessage = errorText || errorMessage;
-                        }
-                        throw new Error(errorMessage);
-                    }
-                    const data = await response.json();
+                    const data = await fetchPage(1);
+                    page.value = 1;
                     games.value = data.games || [];
+                    total.value = data.total || 0;
+                    serverStats.value = data.stats || null;
                     showSuccessTip.value = true;
                     setTimeout(() => {
                         showSuccessTip.value = false;
@@ -100,30 +122,85 @@ document.addEventListener('DOMContentLoaded', function() {
                 }
             }
 
+            // 服务端提交新快照后在后台重新加载第一页，不显示加载状态
+            async function reloadQuietly() {
+                if (loading.value || loadingMore.value) {
+                    return;
+                }
+                try {
+                    const data = await fetchPage(1);
+                    page.value = 1;
+                    games.value = data.games || [];
+                    total.value = data.total || 0;
+                    serverStats.value = data.stats || null;
+                    showSuccessTip.value = true;
+                    setTimeout(() => {
+                        showSuccessTip.value = false;
+                    }, 2000);
+                } catch (err) {
+                    console.error('Failed to reload games:', err);
+                }
+            }
+
+            function subscribeEvents() {
+                if (typeof EventSource === 'undefined') {
+                    return;
+                }
+                const eventSource = new EventSource('/steamview/events');
+                eventSource.addEventListener('snapshot-updated', () => {
+                    reloadQuietly();
+                });
+            }
+
             function handleSortChange() {
-                // 排序变化时自动重新渲染
+                // 排序变化时由服务端重新排序，从第一页开始加载
+                loadGames();
             }
 
             function handleRefresh() {
                 loadGames();
             }
 
-            function loadMore() {
-                displayCount.value += 12;
+            async function loadMore() {
+                if (loadingMore.value) {
+                    return;
+                }
+                loadingMore.value = true;
+                loadMoreError.value = null;
+                try {
+                    const data = await fetchPage(page.value + 1);
+                    page.value += 1;
+                    games.value = games.value.concat(data.games || []);
+                    total.value = data.total || 0;
+                } catch (err) {
+                    // 保留已加载的游戏，在按钮处提示失败并允许重试
+                    loadMoreError.value = err instanceof Error ? err.message : '加载更多游戏失败';
+                    console.error('Failed to load more games:', err);
+                } finally {
+                    loadingMore.value = false;
+                }
             }
 
+            watch(sortBy, handleSortChange);
+
             function goBack() {
                 window.location.href = '/';
             }
 
             onMounted(() => {
-                loadGames();
+                if (loading.value) {
+                    loadGames();
+                }
+                subscribeEvents();
             });
 
             return {
                 games,
+                total,
                 loading,
+                loadingMore,
                 error,
+                loadMoreError,
                 sortBy,
                 stats,
                 displayedGames,
@@ -137,136 +214,135 @@ document.addEventListener('DOMContentLoaded', function() {
             };
         },
         template: `
-            <div class="steam-view-container">
-                <!-- 页面头部 -->
-                <header class="page-header">
-                    <h1 class="page-title">Steam 游戏统计</h1>
-                    <p class="page-subtitle">游戏时长统计</p>
-                </header>
+            <!-- 挂载到 #steamview-page，该元素本身即为页面容器 -->
+            <!-- 页面头部 -->
+            <header class="page-header">
+                <h1 class="page-title">Steam 游戏统计</h1>
+                <p class="page-subtitle">游戏时长统计</p>
+            </header>
 
-                <!-- 顶部区域：统计和控制 -->
-                <div class="top-section">
-                    <div class="stats-dashboard">
-                        <div class="stats-section">
-                            <h3 class="section-title">游戏统计</h3>
-                            <div class="stats-grid">
-                                <div class="stat-card">
-                                    <div class="stat-icon">🎮</div>
-                                    <div class="stat-content">
-                                        <div class="stat-value">{{ stats.totalGames }}</div>
-                                        <div class="stat-label">游戏总数</div>
-                                    </div>
+            <!-- 顶部区域：统计和控制 -->
+            <div class="top-section">
+                <div class="stats-dashboard">
+                    <div class="stats-section">
+                        <h3 class="section-title">游戏统计</h3>
+                        <div class="stats-grid">
+                            <div class="stat-card">
+                                <div class="stat-icon">🎮</div>
+                                <div class="stat-content">
+                                    <div class="stat-value">{{ stats.totalGames }}</div>
+                                    <div class="stat-label">游戏总数</div>
                                 </div>
-                                <div class="stat-card">
-                                    <div class="stat-icon">⏱️</div>
-                                    <div class="stat-content">
-                                        <div class="stat-value">{{ stats.totalTime }}</div>
-                                        <div class="stat-label">总游戏时长</div>
-                                    </div>
+                            </div>
+                            <div class="stat-card">
+                                <div class="stat-icon">⏱️</div>
+                                <div class="stat-content">
+                                    <div class="stat-value">{{ stats.totalTime }}</div>
+                                    <div class="stat-label">总游戏时长</div>
                                 </div>
-                                <div class="stat-card">
-                                    <div class="stat-icon">📅</div>
-                                    <div class="stat-content">
-                                        <div class="stat-value">{{ stats.twoWeekTime }}</div>
-                                        <div class="stat-label">两周游戏时长</div>
-                                    </div>
+                            </div>
+                            <div class="stat-card">
+                                <div class="stat-icon">📅</div>
+                                <div class="stat-content">
+                                    <div class="stat-value">{{ stats.twoWeekTime }}</div>
+                                    <div class="stat-label">两周游戏时长</div>
                                 </div>
-                                <div class="stat-card">
-                                    <div class="stat-icon">🔥</div>
-                                    <div class="stat-content">
-                                        <div class="stat-value">{{ stats.twoWeekGames }}</div>
-                                        <div class="stat-label">两周活跃游戏</div>
-                                    </div>
+                            </div>
+                            <div class="stat-card">
+                                <div class="stat-icon">🔥</div>
+                                <div class="stat-content">
+                                    <div class="stat-value">{{ stats.twoWeekGames }}</div>
+                                    <div class="stat-label">两周活跃游戏</div>
                                 </div>
                             </div>
                         </div>
                     </div>
+                </div>
 
-                    <div class="controls-bar">
-                        <div class="sort-selector">
-                            <label for="sort-select">排序方式:</label>
-                            <select id="sort-select" class="sort-select" v-model="sortBy">
-                                <option value="twoWeekTime">两周时长</option>
-                                <option value="totalTime">总时长</option>
-                                <option value="name">游戏名称</option>
-                                <option value="lastPlayed">最近游玩</option>
-                            </select>
-                        </div>
-                        <div class="refresh-btn" @click="handleRefresh">
-                            <svg viewBox="0 0 24 24" fill="none" stroke="currentColor" stroke-width="2">
-                                <path d="M23 4v6h-6"></path>
-                                <path d="M1 20v-6h6"></path>
-                                <path d="M3.51 9a9 9 0 0 1 14.85-3.36L23 10M1 14l4.64 4.36A9 9 0 0 0 20.49 15"></path>
-                            </svg>
-                            <span>刷新数据</span>
-                        </div>
+                <div class="controls-bar">
+                    <div class="sort-selector">
+                        <label for="sort-select">排序方式:</label>
+                        <select id="sort-select" class="sort-select" v-model="sortBy">
+                            <option value="twoWeekTime">两周时长</option>
+                            <option value="totalTime">总时长</option>
+                            <option value="name">游戏名称</option>
+                            <option value="lastPlayed">最近游玩</option>
+                        </select>
+                    </div>
+                    <div class="refresh-btn" @click="handleRefresh">
+                        <svg viewBox="0 0 24 24" fill="none" stroke="currentColor" stroke-width="2">
+                            <path d="M23 4v6h-6"></path>
+                            <path d="M1 20v-6h6"></path>
+                            <path d="M3.51 9a9 9 0 0 1 14.85-3.36L23 10M1 14l4.64 4.36A9 9 0 0 0 20.49 15"></path>
+                        </svg>
+                        <span>刷新数据</span>
                     </div>
                 </div>
+            </div>
 
-                <!-- 加载状态 -->
-                <div class="loading-container" v-if="loading">
-                    <div class="loading-spinner"></div>
-                    <p class="loading-text">正在加载游戏数据...</p>
-                </div>
+            <!-- 加载状态 -->
+            <div class="loading-container" v-if="loading">
+                <div class="loading-spinner"></div>
+                <p class="loading-text">正在加载游戏数据...</p>
+            </div>
 
-                <!-- 错误状态 -->
-                <div class="error-container" v-else-if="error">
-                    <div class="error-icon">⚠️</div>
-                    <p class="error-message">{{ error }}</p>
-                    <button class="retry-btn" @click="handleRefresh">重试</button>
-                </div>
+            <!-- 错误状态 -->
+            <div class="error-container" v-else-if="error">
+                <div class="error-icon">⚠️</div>
+                <p class="error-message">{{ error }}</p>
+                <button class="retry-btn" @click="handleRefresh">重试</button>
+            </div>
 
-                <!-- 游戏卡片网格 -->
-                <div class="game-grid" v-else>
-                    <div class="game-card" v-for="game in displayedGames" :key="game.appId">
-                        <div class="game-cover">
-                            <img :src="game.coverUrl" :alt="game.name">
+            <!-- 游戏卡片网格 -->
+            <div class="game-grid" v-else>
+                <div class="game-card" v-for="game in displayedGames" :key="game.appId">
+                    <div class="game-cover">
+                        <img :src="game.coverUrl + '?variant=medium'" :alt="game.name" loading="lazy">
+                    </div>
+                    <div class="game-info">
+                        <h3 class="game-name">{{ game.name }}</h3>
+                        <div class="game-stats">
+                            <div class="stat-item">
+                                <span class="stat-label">总时长</span>
+                                <span class="stat-value">{{ formatTime(game.totalTime) }}</span>
+                            </div>
+                            <div class="stat-item">
+                                <span class="stat-label">两周时长</span>
+                                <span class="stat-value">{{ formatTime(game.twoWeekTime) }}</span>
+                            </div>
+                            <div class="stat-item">
+                                <span class="stat-label">最后游玩</span>
+                                <span class="stat-value">{{ game.lastPlayed }}</span>
+                            </div>
                         </div>
-                        <div class="game-info">
-                            <h3 class="game-name">{{ game.name }}</h3>
-                            <div class="game-stats">
-                                <div class="stat-item">
-                                    <span class="stat-label">总时长</span>
-                                    <span class="stat-value">{{ formatTime(game.totalTime) }}</span>
-                                </div>
-                                <div class="stat-item">
-                                    <span class="stat-label">两周时长</span>
-                                    <span class="stat-value">{{ formatTime(game.twoWeekTime) }}</span>
-                                </div>
-                                <div class="stat-item">
-                                    <span class="stat-label">最后游玩</span>
-                                    <span class="stat-value">{{ game.lastPlayed }}</span>
+                        <div class="progress-bars">
+                            <div class="progress-item">
+                                <div class="progress-bar">
+                                    <div class="progress-fill" :style="{ width: game.totalPercent + '%' }"></div>
                                 </div>
+                                <div class="progress-label">总时长占比: {{ game.totalPercent.toFixed(1) }}%</div>
                             </div>
-                            <div class="progress-bars">
-                                <div class="progress-item">
-                                    <div class="progress-bar">
-                                        <div class="progress-fill" :style="{ width: game.totalPercent + '%' }"></div>
-                                    </div>
-                                    <div class="progress-label">总时长占比: {{ game.totalPercent.toFixed(1) }}%</div>
-                                </div>
-                                <div class="progress-item" v-if="game.twoWeekTime > 0">
-                                    <div class="progress-bar">
-                                        <div class="progress-fill two-week" :style="{ width: game.twoWeekPercent + '%' }"></div>
-                                    </div>
-                                    <div class="progress-label">两周时长占比: {{ game.twoWeekPercent.toFixed(1) }}%</div>
+                            <div class="progress-item" v-if="game.twoWeekTime > 0">
+                                <div class="progress-bar">
+                                    <div class="progress-fill two-week" :style="{ width: game.twoWeekPercent + '%' }"></div>
                                 </div>
+                                <div class="progress-label">两周时长占比: {{ game.twoWeekPercent.toFixed(1) }}%</div>
                             </div>
                         </div>
                     </div>
                 </div>
+            </div>
 
-                <!-- 加载更多按钮 -->
-                <div class="load-more-container" v-if="hasMoreGames && !loading && !error">
-                    <button class="load-more-btn" @click="loadMore">
-                        加载更多 ({{ displayedGames.length }}/{{ games.length }})
-                    </button>
-                </div>
+            <!-- 加载更多按钮 -->
+            <div class="load-more-container" v-if="hasMoreGames && !loading && !error">
+                <button class="load-more-btn" :disabled="loadingMore" @click="loadMore">
+                    {{ loadMoreError ? '加载失败，点击重试' : '加载更多' }} ({{ displayedGames.length }}/{{ total }})
+                </button>
+            </div>
 
-                <!-- 刷新成功提示 -->
-                <div class="refresh-success-tip" v-if="showSuccessTip">
-                    数据已刷新成功！
-                </div>
+            <!-- 刷新成功提示 -->
+            <div class="refresh-success-tip" v-if="showSuccessTip">
+                数据已刷新成功！
             </div>
         `
     });